@@ -0,0 +1,94 @@
+package com.example.dailyfix.benchmarks;
+
+import com.example.dailyfix.aop.ArgumentValidationAspect;
+import com.example.dailyfix.aop.Traced;
+import com.example.dailyfix.aop.TracingAspect;
+import com.example.dailyfix.aop.ValidateArgs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the service-layer aspects, measured on a trivial method so the advice dominates:
+ * <ul>
+ *     <li>noProxy - plain call, the floor</li>
+ *     <li>legacyAspects - the old blanket INFO logging + null scan on every method</li>
+ *     <li>annotatedAspects - {@code @Traced @ValidateArgs} with sampling off and DEBUG disabled</li>
+ *     <li>unannotatedMethod - a proxied bean's method that opted into neither</li>
+ * </ul>
+ * Run with {@code -prof gc} to see the allocation each variant adds per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AspectOverheadBenchmark {
+
+    private static final String SUBJECT = "Urgent: Database resize needed in 2h";
+    private static final String DOMAIN = "alerts.example.com";
+
+    public static class TriageTarget {
+
+        public String classify(String subject, String domain) {
+            return subject.length() > domain.length() ? subject : domain;
+        }
+
+        @Traced
+        @ValidateArgs
+        public String classifyAnnotated(String subject, String domain) {
+            return subject.length() > domain.length() ? subject : domain;
+        }
+    }
+
+    private TriageTarget direct;
+    private TriageTarget legacy;
+    private TriageTarget current;
+
+    @Setup
+    public void setUp() {
+        direct = new TriageTarget();
+        legacy = proxy(new LegacyAspects.Logging(), new LegacyAspects.Validation());
+        current = proxy(new TracingAspect(0.0), new ArgumentValidationAspect());
+    }
+
+    private static TriageTarget proxy(Object... aspects) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TriageTarget());
+        factory.setProxyTargetClass(true);
+        for (Object aspect : aspects) {
+            factory.addAspect(aspect);
+        }
+        return factory.getProxy();
+    }
+
+    @Benchmark
+    public String noProxy() {
+        return direct.classify(SUBJECT, DOMAIN);
+    }
+
+    @Benchmark
+    public String legacyAspects() {
+        return legacy.classify(SUBJECT, DOMAIN);
+    }
+
+    @Benchmark
+    public String annotatedAspects() {
+        return current.classifyAnnotated(SUBJECT, DOMAIN);
+    }
+
+    @Benchmark
+    public String unannotatedMethod() {
+        return current.classify(SUBJECT, DOMAIN);
+    }
+}
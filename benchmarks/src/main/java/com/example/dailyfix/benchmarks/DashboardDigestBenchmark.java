@@ -0,0 +1,56 @@
+package com.example.dailyfix.benchmarks;
+
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.model.Task;
+import com.example.dailyfix.service.DashboardSummaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream/String.format building of the dashboard summary inputs, at dailyfix.dashboard.summary-limit rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DashboardDigestBenchmark {
+
+    private static final int ROWS = 50;
+
+    private List<Message> messages;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        messages = GmailFixtures.entities(ROWS);
+        tasks = GmailFixtures.tasks(ROWS);
+    }
+
+    @Benchmark
+    public String mailDigest() {
+        return DashboardSummaryService.mailDigest(messages);
+    }
+
+    @Benchmark
+    public String taskDigest() {
+        return DashboardSummaryService.taskDigest(tasks);
+    }
+
+    @Benchmark
+    public String fingerprint() {
+        return DashboardSummaryService.fingerprint(messages, tasks);
+    }
+}
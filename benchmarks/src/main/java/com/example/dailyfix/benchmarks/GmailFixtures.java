@@ -0,0 +1,180 @@
+package com.example.dailyfix.benchmarks;
+
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.enums.TaskStatus;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.model.Task;
+import com.example.dailyfix.service.GmailMessageMapper;
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartBody;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, production-shaped inputs. A format=full Gmail message carries 20-40 headers
+ * (Received chains, DKIM/ARC signatures, List-* on bulk mail) with Subject/From anywhere in the list,
+ * which is what the linear header scans in the mapper actually pay for. Bodies are text/plain + text/html
+ * alternatives, except every fifth message: an HTML-only newsletter with a large inline image, the case
+ * body extraction has to stay bounded on.
+ */
+final class GmailFixtures {
+
+    private static final String[] SENDERS = {
+            "\"PagerDuty\" <no-reply@pagerduty.com>",
+            "Jane Doe <jane.doe@acme-corp.com>",
+            "GitHub <notifications@github.com>",
+            "billing@stripe.com",
+            "\"Team Alpha\" <alpha-team@eng.example.org>",
+            "newsletter@mail.industry-weekly.net"
+    };
+
+    private static final String[] SUBJECTS = {
+            "[FIRING:1] HighErrorRate api-gateway prod-eu-west-1",
+            "Re: Q3 roadmap review - can we move the sync to Thursday?",
+            "[acme/dailyfix] Fix race in token refresh (#412)",
+            "Your receipt from Stripe #1842-2291",
+            "Action required: approve deployment window for 2.4.0",
+            "This week in infrastructure: 12 things you missed"
+    };
+
+    private static final String SNIPPET =
+            "Hi team, following up on yesterday&#39;s incident: the database failover completed at 03:12 UTC "
+                    + "but replication lag stayed above 40s until 03:55. Can someone confirm the runbook &amp; "
+                    + "owners before Thursday&#39;s review? Thanks, Jane";
+
+    private static final String BODY = SNIPPET.replace("&#39;", "'").replace("&amp;", "&")
+            + "\r\n\r\nTimeline and graphs are in the incident doc. I'd like owners for the three follow-ups "
+            + "(alert thresholds, failover drill, lag dashboard) by Wednesday.\r\n\r\n-- \r\nJane Doe | SRE\r\n";
+
+    private static final String NEWSLETTER = "<html><head><style>" + "td{font-family:Arial;padding:0 8px}".repeat(400)
+            + "</style></head><body><table>" + "<tr><td><a href=\"https://example.com/r/abc\">Read more</a></td></tr>".repeat(200)
+            + "<tr><td>" + BODY + "</td></tr></table></body></html>";
+
+    private static final String INLINE_IMAGE = "A".repeat(256 * 1024);
+
+    private GmailFixtures() {
+    }
+
+    static List<com.google.api.services.gmail.model.Message> gmailMessages(int count) {
+        Random random = new Random(42);
+        List<com.google.api.services.gmail.model.Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(gmailMessage(i, random));
+        }
+        return messages;
+    }
+
+    private static com.google.api.services.gmail.model.Message gmailMessage(int i, Random random) {
+        List<MessagePartHeader> headers = new ArrayList<>();
+        int received = 3 + random.nextInt(6);
+        for (int hop = 0; hop < received; hop++) {
+            headers.add(header("Received", "from mail-sor-f" + hop + ".google.com (mail-sor-f" + hop
+                    + ".google.com. [209.85.220.41]) by mx.google.com with SMTPS id " + Long.toHexString(random.nextLong())
+                    + " for <me@dailyfix.example>; Tue, 14 Oct 2025 09:1" + hop + ":0" + hop + " -0700 (PDT)"));
+        }
+        headers.add(header("ARC-Seal", "i=1; a=rsa-sha256; t=1697300000; cv=none; d=google.com; s=arc-20160816; b=" + "x".repeat(340)));
+        headers.add(header("DKIM-Signature", "v=1; a=rsa-sha256; c=relaxed/relaxed; d=example.com; s=s1; h=from:to:subject:date; bh=" + "y".repeat(44) + "; b=" + "z".repeat(340)));
+        headers.add(header("Return-Path", "<bounce-" + i + "@bounces.example.com>"));
+        headers.add(header("MIME-Version", "1.0"));
+        headers.add(header("Date", "Tue, 14 Oct 2025 09:12:0" + (i % 10) + " -0700"));
+        headers.add(header("Message-ID", "<" + Long.toHexString(random.nextLong()) + "@mail.example.com>"));
+        headers.add(header("Subject", SUBJECTS[i % SUBJECTS.length]));
+        headers.add(header("From", SENDERS[i % SENDERS.length]));
+        headers.add(header("To", "me@dailyfix.example"));
+        headers.add(header("Content-Type", "multipart/alternative; boundary=\"000000000000" + i + "\""));
+        if (i % 3 == 0) {
+            headers.add(header("List-Unsubscribe", "<https://example.com/unsubscribe?u=" + i + ">, <mailto:unsubscribe@example.com>"));
+            headers.add(header("List-Id", "Industry Weekly <weekly.industry-weekly.net>"));
+            headers.add(header("Precedence", "bulk"));
+        }
+        headers.add(header("X-Google-Smtp-Source", "AGHT+I" + "q".repeat(80)));
+        headers.add(header("X-Received", "by 2002:a05:6a00:1a8e with SMTP id " + i));
+
+        return new com.google.api.services.gmail.model.Message()
+                .setId("18b2" + Integer.toHexString(1_000_000 + i))
+                .setThreadId("18b2" + Integer.toHexString(2_000_000 + i))
+                .setSnippet(SNIPPET)
+                .setPayload(new MessagePart().setMimeType("multipart/alternative").setHeaders(headers)
+                        .setParts(i % 5 == 4 ? newsletterParts() : alternativeParts()));
+    }
+
+    private static List<MessagePart> alternativeParts() {
+        return List.of(
+                part("text/plain", BODY),
+                part("text/html", "<div dir=\"ltr\">" + BODY.replace("\r\n", "<br>") + "</div>"));
+    }
+
+    private static List<MessagePart> newsletterParts() {
+        MessagePart image = new MessagePart().setMimeType("image/png").setFilename("banner.png")
+                .setBody(new MessagePartBody().setSize(INLINE_IMAGE.length()).setData(INLINE_IMAGE));
+        return List.of(part("text/html", NEWSLETTER), image);
+    }
+
+    private static MessagePart part(String mimeType, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return new MessagePart().setMimeType(mimeType)
+                .setHeaders(List.of(header("Content-Type", mimeType + "; charset=\"UTF-8\"")))
+                .setBody(new MessagePartBody().setSize(bytes.length).setData(Base64.getUrlEncoder().encodeToString(bytes)));
+    }
+
+    private static MessagePartHeader header(String name, String value) {
+        return new MessagePartHeader().setName(name).setValue(value);
+    }
+
+    /**
+     * Triaged messages as the dashboard and the prompts see them (mapped from the Gmail fixtures).
+     */
+    static List<Message> entities(int count) {
+        List<Message> entities = new ArrayList<>(count);
+        long id = 1;
+        for (com.google.api.services.gmail.model.Message gmail : gmailMessages(count)) {
+            Message message = GmailMessageMapper.toEntity(gmail, null);
+            message.setId(id++);
+            message.setPriority(Priority.values()[(int) (id % Priority.values().length)]);
+            entities.add(message);
+        }
+        return entities;
+    }
+
+    static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (Message message : entities(count)) {
+            Task task = new Task();
+            task.setId(message.getId());
+            task.setTitle(message.getSubject());
+            task.setDescription(message.getContent());
+            task.setPriority(message.getPriority());
+            task.setStatus(TaskStatus.OPEN);
+            task.setCreatedAt(LocalDateTime.now());
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * A Gemini answer the way it actually comes back: fenced, with prose around the JSON.
+     */
+    static String singleAnswer() {
+        return """
+                ```json
+                {"priority": "HIGH", "intent": "ACTION_REQUIRED", "reason": "Production failover with open follow-ups before a dated review."}
+                ```
+                """;
+    }
+
+    static String batchAnswer(List<Message> messages) {
+        StringBuilder json = new StringBuilder("```json\n[");
+        for (int i = 0; i < messages.size(); i++) {
+            if (i > 0) json.append(",\n");
+            json.append("{\"id\": ").append(messages.get(i).getId())
+                    .append(", \"priority\": \"MEDIUM\", \"intent\": \"INFORMATIONAL\", \"reason\": \"Routine project update.\"}");
+        }
+        return json.append("]\n```\n").toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.dailyfix.benchmarks;
+
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.service.GmailMessageMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gmail message to entity mapping (header scans, sender-domain parsing, triage header capture,
+ * bounded body extraction) for one sync batch. Run with {@code -prof gc} for bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IngestBenchmark {
+
+    // dailyfix.sync.batch-size
+    private static final int BATCH = 50;
+
+    private List<com.google.api.services.gmail.model.Message> batch;
+
+    @Setup
+    public void setUp() {
+        batch = GmailFixtures.gmailMessages(BATCH);
+    }
+
+    @Benchmark
+    public void mapSyncBatch(Blackhole blackhole) {
+        for (com.google.api.services.gmail.model.Message gmail : batch) {
+            Message message = GmailMessageMapper.toEntity(gmail, null);
+            blackhole.consume(message);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.dailyfix.benchmarks;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The blanket LoggingAspect/ValidationAspect pair that used to advise every service method,
+ * kept here (pointed at the benchmark package) as the "before" baseline.
+ */
+final class LegacyAspects {
+
+    private LegacyAspects() {
+    }
+
+    @Aspect
+    static class Logging {
+
+        private static final Logger logger = LoggerFactory.getLogger(Logging.class);
+
+        @Before("execution(* com.example.dailyfix.benchmarks..*(..))")
+        public void logServiceEntry(JoinPoint joinPoint) {
+            logger.info("Service method start: {}()", joinPoint.getSignature().toShortString());
+        }
+
+        @AfterReturning(
+                pointcut = "execution(* com.example.dailyfix.benchmarks..*(..))",
+                returning = "result"
+        )
+        public void logServiceExit(JoinPoint joinPoint, Object result) {
+            logger.info("Service method completed: {}()", joinPoint.getSignature().toShortString());
+        }
+
+        @AfterThrowing(
+                pointcut = "execution(* com.example.dailyfix.benchmarks..*(..))",
+                throwing = "ex"
+        )
+        public void logException(JoinPoint joinPoint, Exception ex) {
+            logger.error("Exception in {}() : {}", joinPoint.getSignature().toShortString(), ex.getMessage());
+        }
+    }
+
+    @Aspect
+    static class Validation {
+
+        @Before("execution(* com.example.dailyfix.benchmarks..*(..))")
+        public void validateInputs(JoinPoint joinPoint) {
+            for (Object arg : joinPoint.getArgs()) {
+                if (arg == null) {
+                    throw new IllegalArgumentException(
+                            "Invalid input: null value passed to " + joinPoint.getSignature().toShortString());
+                }
+            }
+        }
+    }
+}
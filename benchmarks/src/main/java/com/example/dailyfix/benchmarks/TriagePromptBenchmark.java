@@ -0,0 +1,73 @@
+package com.example.dailyfix.benchmarks;
+
+import com.example.dailyfix.enums.TrustLevel;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.service.PriorityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU side of a Gemini classification: prompt construction (String.format / StringBuilder,
+ * HTML unescaping) and the regex-based extraction of the JSON answer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TriagePromptBenchmark {
+
+    // gemini.classification.batch-size
+    private static final int BATCH = 10;
+
+    private Message message;
+    private List<PriorityService.BatchItem> batch;
+    private String singleAnswer;
+    private String batchAnswer;
+
+    @Setup
+    public void setUp() {
+        List<Message> messages = GmailFixtures.entities(BATCH);
+        message = messages.getFirst();
+        batch = messages.stream().map(m -> new PriorityService.BatchItem(m, TrustLevel.MEDIUM)).toList();
+        singleAnswer = GmailFixtures.singleAnswer();
+        batchAnswer = GmailFixtures.batchAnswer(messages);
+    }
+
+    @Benchmark
+    public String singlePrompt() {
+        return PriorityService.buildPrompt(
+                HtmlUtils.htmlUnescape(message.getSubject()),
+                HtmlUtils.htmlUnescape(message.getContent()),
+                TrustLevel.MEDIUM);
+    }
+
+    @Benchmark
+    public String batchPrompt() {
+        return PriorityService.buildBatchPrompt(batch);
+    }
+
+    @Benchmark
+    public Object parseSingleAnswer() {
+        return PriorityService.parseAnalysis(singleAnswer);
+    }
+
+    @Benchmark
+    public Map<Long, ?> parseBatchAnswer() {
+        return PriorityService.parseBatchAnalysis(batchAnswer);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.dailyfix.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers {@code generateContent} the way PriorityService and AIService expect: batch and single
+ * classification prompts get JSON verdicts (deterministic per message id), anything else
+ * (summaries, drafts) gets a short canned text. {@code streamGenerateContent} sends the same answer as SSE chunks.
+ */
+class GeminiStandIn extends StandIn {
+
+    private static final Pattern BATCH_ID = Pattern.compile("## EMAIL id=(\\d+)");
+
+    // Roughly the mix a real inbox gets: a few urgent, mostly noise
+    private static final String[][] VERDICTS = {
+            {"HIGH", "ACTION_REQUIRED"},
+            {"MEDIUM", "ACTION_REQUIRED"},
+            {"MEDIUM", "INFORMATIONAL"},
+            {"LOW", "INFORMATIONAL"},
+            {"LOW", "PROMOTIONAL"},
+            {"SILENT", "INFORMATIONAL"},
+            {"SILENT", "PROMOTIONAL"}
+    };
+
+    GeminiStandIn(LoadTestOptions options) {
+        super(options.geminiLatencyMs(), options.gemini429Rate());
+    }
+
+    @Override
+    void serve(HttpExchange exchange) throws IOException {
+        String prompt = new JSONObject(readBody(exchange))
+                .getJSONArray("contents").getJSONObject(0)
+                .getJSONArray("parts").getJSONObject(0)
+                .getString("text");
+
+        String answer = answer(prompt);
+        if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+            stream(exchange, answer);
+            return;
+        }
+        send(exchange, 200, "application/json; charset=UTF-8", candidate(answer).toString());
+    }
+
+    /**
+     * alt=sse framing: the answer a few words at a time, one "data:" event per chunk.
+     */
+    private static void stream(HttpExchange exchange, String answer) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            String[] words = answer.split("(?<= )");
+            for (int from = 0; from < words.length; from += 3) {
+                String chunk = String.join("", Arrays.copyOfRange(words, from, Math.min(from + 3, words.length)));
+                out.write(("data: " + candidate(chunk) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private static JSONObject candidate(String text) {
+        JSONObject part = new JSONObject().put("text", text);
+        return new JSONObject().put("candidates", new JSONArray()
+                .put(new JSONObject().put("content", new JSONObject().put("parts", new JSONArray().put(part)))));
+    }
+
+    private static String answer(String prompt) {
+        Matcher ids = BATCH_ID.matcher(prompt);
+        if (ids.find()) {
+            JSONArray verdicts = new JSONArray();
+            do {
+                long id = Long.parseLong(ids.group(1));
+                verdicts.put(verdict(id).put("id", id));
+            } while (ids.find());
+            return "```json\n" + verdicts.toString(1) + "\n```";
+        }
+        if (prompt.contains("# CURRENT EMAIL:")) {
+            return verdict(prompt.hashCode()).toString();
+        }
+        return "Stand-in response: nothing here needs your attention.";
+    }
+
+    private static JSONObject verdict(long seed) {
+        String[] verdict = VERDICTS[(int) Math.floorMod(seed, (long) VERDICTS.length)];
+        return new JSONObject()
+                .put("priority", verdict[0])
+                .put("intent", verdict[1])
+                .put("reason", "Stand-in verdict.");
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.dailyfix.loadtest;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryMessageAdded;
+import com.google.api.services.gmail.model.ListHistoryResponse;
+import com.google.api.services.gmail.model.ListMessagesResponse;
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartBody;
+import com.google.api.services.gmail.model.MessagePartHeader;
+import com.google.api.services.gmail.model.Profile;
+import com.google.api.services.gmail.model.WatchResponse;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the Gmail calls the sync path makes: profile, messages.list, history.list, messages.get,
+ * batch (multipart/mixed of messages.get), batchModify, send and watch.
+ * <p>
+ * Each seeded user's access token is {@code loadtest-<index>}, which selects their mailbox. A mailbox is
+ * just a message counter that doubles as its history id: history.list delivers the configured arrivals
+ * and returns everything after the caller's cursor, so a failed cycle picks its messages up next time.
+ * Once {@link #pushMode()} is switched on, mail only arrives through {@link #deliver(int)}, as it would
+ * for a mailbox that is being watched.
+ */
+class GmailStandIn extends StandIn {
+
+    static final String TOKEN_PREFIX = "loadtest-";
+
+    private static final String[] SENDERS = {
+            "\"PagerDuty\" <no-reply@pagerduty.com>",
+            "Jane Doe <jane.doe@acme-corp.com>",
+            "GitHub <notifications@github.com>",
+            "billing@stripe.com",
+            "\"Team Alpha\" <alpha-team@eng.example.org>",
+            "newsletter@mail.industry-weekly.net"
+    };
+
+    private static final String[] SUBJECTS = {
+            "[FIRING:1] HighErrorRate api-gateway prod-eu-west-1",
+            "Re: Q3 roadmap review - can we move the sync to Thursday?",
+            "[acme/dailyfix] Fix race in token refresh",
+            "Your receipt from Stripe",
+            "Action required: approve deployment window",
+            "This week in infrastructure: 12 things you missed"
+    };
+
+    private static final String BODY =
+            "Hi team, following up on yesterday's incident: the database failover completed at 03:12 UTC "
+                    + "but replication lag stayed above 40s until 03:55. Can someone confirm the runbook and "
+                    + "owners before Thursday's review? Thanks, Jane\r\n";
+
+    private final int mailboxSize;
+    private final int arrivalsPerCycle;
+    private final Map<Integer, AtomicInteger> mailboxes = new ConcurrentHashMap<>();
+    private volatile boolean pushMode;
+    final LongAdder messagesServed = new LongAdder();
+
+    GmailStandIn(LoadTestOptions options) {
+        super(options.gmailLatencyMs(), options.gmail429Rate());
+        this.mailboxSize = options.mailboxSize();
+        this.arrivalsPerCycle = options.arrivalsPerCycle();
+    }
+
+    /**
+     * Stops history.list from inventing arrivals; from now on new mail comes from deliver().
+     */
+    void pushMode() {
+        pushMode = true;
+    }
+
+    /**
+     * Drops one new message into the user's inbox and returns the mailbox's new history id,
+     * which is what Gmail puts in the watch notification.
+     */
+    int deliver(int user) {
+        return mailbox(user).incrementAndGet();
+    }
+
+    @Override
+    void serve(HttpExchange exchange) throws IOException {
+        int user = userIndex(exchange.getRequestHeaders().getFirst("Authorization"));
+        if (user < 0) {
+            send(exchange, 401, "application/json", "{\"error\": {\"code\": 401, \"message\": \"Invalid Credentials\"}}");
+            return;
+        }
+
+        if (exchange.getRequestURI().getPath().startsWith("/batch")) {
+            serveBatch(exchange, user);
+            return;
+        }
+        readBody(exchange);
+
+        Response response = route(exchange.getRequestMethod(), exchange.getRequestURI(), user);
+        send(exchange, response.status(), "application/json; charset=UTF-8", response.body());
+    }
+
+    private record Response(int status, String body) {
+    }
+
+    private Response route(String method, URI uri, int user) throws IOException {
+        // Paths look like /gmail/v1/users/me/<resource>
+        String path = uri.getPath();
+        int users = path.indexOf("/users/");
+        String resource = users < 0 ? "" : path.substring(path.indexOf('/', users + "/users/".length()) + 1);
+        Map<String, String> query = query(uri);
+
+        if (method.equals("GET") && resource.equals("profile")) {
+            return ok(new Profile().setEmailAddress(email(user)).setHistoryId(BigInteger.valueOf(mailbox(user).get())));
+        }
+        if (method.equals("GET") && resource.equals("messages")) {
+            return ok(listMessages(user, query));
+        }
+        if (method.equals("GET") && resource.equals("history")) {
+            return ok(listHistory(user, query));
+        }
+        if (method.equals("GET") && resource.startsWith("messages/")) {
+            return ok(message(resource.substring("messages/".length())));
+        }
+        if (method.equals("POST") && resource.equals("watch")) {
+            return ok(new WatchResponse().setHistoryId(BigInteger.valueOf(mailbox(user).get()))
+                    .setExpiration(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(7)));
+        }
+        if (method.equals("POST") && resource.equals("messages/batchModify")) {
+            return new Response(204, "");
+        }
+        if (method.equals("POST") && resource.equals("messages/send")) {
+            return ok(new com.google.api.services.gmail.model.Message()
+                    .setId("sent-" + System.nanoTime()).setLabelIds(List.of("SENT")));
+        }
+        return new Response(404, "{\"error\": {\"code\": 404, \"message\": \"Not Found\"}}");
+    }
+
+    private ListMessagesResponse listMessages(int user, Map<String, String> query) {
+        int size = mailbox(user).get();
+        int offset = Integer.parseInt(query.getOrDefault("pageToken", "0"));
+        int pageSize = Integer.parseInt(query.getOrDefault("maxResults", "100"));
+
+        // Newest first, like Gmail
+        List<com.google.api.services.gmail.model.Message> page = new ArrayList<>();
+        for (int i = size - 1 - offset; i >= 0 && page.size() < pageSize; i--) {
+            page.add(new com.google.api.services.gmail.model.Message().setId(messageId(user, i)).setThreadId(messageId(user, i)));
+        }
+        int next = offset + page.size();
+        return new ListMessagesResponse()
+                .setMessages(page)
+                .setResultSizeEstimate((long) size)
+                .setNextPageToken(next < size ? String.valueOf(next) : null);
+    }
+
+    private ListHistoryResponse listHistory(int user, Map<String, String> query) {
+        int start = Integer.parseInt(query.getOrDefault("startHistoryId", "0"));
+        int size = pushMode ? mailbox(user).get() : mailbox(user).addAndGet(arrivalsPerCycle);
+
+        List<History> history = new ArrayList<>();
+        for (int i = start; i < size; i++) {
+            com.google.api.services.gmail.model.Message added =
+                    new com.google.api.services.gmail.model.Message().setId(messageId(user, i)).setThreadId(messageId(user, i));
+            history.add(new History().setId(BigInteger.valueOf(i + 1L))
+                    .setMessagesAdded(List.of(new HistoryMessageAdded().setMessage(added))));
+        }
+        return new ListHistoryResponse().setHistory(history).setHistoryId(BigInteger.valueOf(size));
+    }
+
+    private void serveBatch(HttpExchange exchange, int user) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length()).replace("\"", "");
+        String body = readBody(exchange);
+
+        String responseBoundary = "batch_" + Long.toHexString(System.nanoTime());
+        StringBuilder out = new StringBuilder();
+        int part = 0;
+        for (String chunk : body.split(Pattern.quote("--" + boundary))) {
+            // Each part is "part headers, blank line, embedded HTTP request line, its headers, blank line, body"
+            int blank = chunk.indexOf("\r\n\r\n");
+            if (blank < 0) continue;
+            String requestLine = chunk.substring(blank + 4).lines().findFirst().orElse("");
+            String[] tokens = requestLine.split(" ");
+            if (tokens.length < 2) continue;
+
+            Response response;
+            if (shouldThrottle()) {
+                throttled.increment();
+                response = new Response(429, tooManyRequests());
+            } else {
+                response = route(tokens[0], URI.create(tokens[1]), user);
+            }
+
+            byte[] json = response.body().getBytes(StandardCharsets.UTF_8);
+            out.append("--").append(responseBoundary).append("\r\n")
+                    .append("Content-Type: application/http\r\n")
+                    .append("Content-ID: <response-").append(++part).append(">\r\n\r\n")
+                    .append("HTTP/1.1 ").append(response.status()).append(response.status() == 200 ? " OK" : " Error").append("\r\n")
+                    .append("Content-Type: application/json; charset=UTF-8\r\n")
+                    .append("Content-Length: ").append(json.length).append("\r\n\r\n")
+                    .append(response.body()).append("\r\n");
+        }
+        out.append("--").append(responseBoundary).append("--\r\n");
+
+        send(exchange, 200, "multipart/mixed; boundary=" + responseBoundary, out.toString());
+    }
+
+    private com.google.api.services.gmail.model.Message message(String id) {
+        int dash = id.indexOf('-');
+        int user = Integer.parseInt(id.substring(2, dash), 16);
+        int index = Integer.parseInt(id.substring(dash + 1));
+        messagesServed.increment();
+
+        List<MessagePartHeader> headers = new ArrayList<>();
+        for (int hop = 0; hop < 4; hop++) {
+            headers.add(header("Received", "from mail-sor-f" + hop + ".google.com by mx.google.com with SMTPS id "
+                    + Integer.toHexString(id.hashCode() + hop) + " for <" + email(user) + ">"));
+        }
+        headers.add(header("DKIM-Signature", "v=1; a=rsa-sha256; c=relaxed/relaxed; d=example.com; s=s1; b=" + "z".repeat(340)));
+        headers.add(header("MIME-Version", "1.0"));
+        headers.add(header("Message-ID", "<" + id + "@mail.example.com>"));
+        // Bulk mail is identical across mailboxes (so the classification cache sees realistic repeats);
+        // everything else is unique to the message
+        boolean bulk = index % 3 == 0;
+        String subject = SUBJECTS[index % SUBJECTS.length];
+        headers.add(header("Subject", bulk ? subject : subject + " #" + id));
+        headers.add(header("From", SENDERS[index % SENDERS.length]));
+        headers.add(header("To", email(user)));
+        headers.add(header("Content-Type", "multipart/alternative; boundary=\"000000000000" + index + "\""));
+        if (bulk) {
+            headers.add(header("List-Unsubscribe", "<https://example.com/unsubscribe?u=" + user + ">"));
+            headers.add(header("List-Id", "Industry Weekly <weekly.industry-weekly.net>"));
+            headers.add(header("Precedence", "bulk"));
+        }
+
+        String text = bulk ? BODY : BODY + "Ref " + id + "\r\n";
+        MessagePart plain = new MessagePart().setPartId("0").setMimeType("text/plain")
+                .setHeaders(List.of(header("Content-Type", "text/plain; charset=\"UTF-8\"")))
+                .setBody(new MessagePartBody().setSize(text.length())
+                        .setData(Base64.getUrlEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8))));
+
+        return new com.google.api.services.gmail.model.Message()
+                .setId(id)
+                .setThreadId(id)
+                .setLabelIds(List.of("INBOX", "UNREAD"))
+                .setSnippet(text.strip())
+                .setInternalDate(System.currentTimeMillis())
+                .setPayload(new MessagePart().setMimeType("multipart/alternative").setHeaders(headers).setParts(List.of(plain)));
+    }
+
+    private AtomicInteger mailbox(int user) {
+        return mailboxes.computeIfAbsent(user, u -> new AtomicInteger(mailboxSize));
+    }
+
+    static String email(int user) {
+        return "user" + user + "@loadtest.dailyfix";
+    }
+
+    // Gmail ids are globally unique in our schema, so the owner is encoded in the id
+    private static String messageId(int user, int index) {
+        return "lt" + Integer.toHexString(user) + "-" + index;
+    }
+
+    private static int userIndex(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer " + TOKEN_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(authorization.substring(("Bearer " + TOKEN_PREFIX).length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        if (uri.getRawQuery() == null) {
+            return params;
+        }
+        for (String pair : uri.getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static MessagePartHeader header(String name, String value) {
+        return new MessagePartHeader().setName(name).setValue(value);
+    }
+
+    private static Response ok(Object model) throws IOException {
+        return new Response(200, GsonFactory.getDefaultInstance().toString(model));
+    }
+}
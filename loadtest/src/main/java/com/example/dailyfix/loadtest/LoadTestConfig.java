@@ -0,0 +1,31 @@
+package com.example.dailyfix.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Instrumentation added to the application context for the duration of a load test.
+ */
+@Configuration(proxyBeanMethods = false)
+class LoadTestConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof StatementCounter)
+                        ? new StatementCounter(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    SyncProbe syncProbe() {
+        return new SyncProbe();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dailyfix.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Harness knobs, given as {@code --loadtest.<name>=<value>} arguments.
+ *
+ * @param users             synthetic mailboxes to seed and sync
+ * @param cycles            sync cycles to run; the first is a full resync, the rest go through history
+ * @param mailboxSize       messages already in each inbox before the first cycle
+ * @param arrivalsPerCycle  new messages each inbox receives between cycles
+ * @param gmailLatencyMs    added to every Gmail round trip (a batch counts as one)
+ * @param gmail429Rate      fraction of Gmail calls, and of parts inside a batch, answered with 429
+ * @param geminiLatencyMs   added to every generateContent call
+ * @param gemini429Rate     fraction of generateContent calls answered with 429
+ * @param pushUsers         mailboxes that get push notifications after the polling cycles; 0 skips that phase
+ * @param pushBurst         messages (and notifications) each of those mailboxes receives in quick succession
+ * @param port              stand-in port; 0 picks a free one
+ */
+record LoadTestOptions(int users,
+                       int cycles,
+                       int mailboxSize,
+                       int arrivalsPerCycle,
+                       long gmailLatencyMs,
+                       double gmail429Rate,
+                       long geminiLatencyMs,
+                       double gemini429Rate,
+                       int pushUsers,
+                       int pushBurst,
+                       int port) {
+
+    private static final String PREFIX = "--loadtest.";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith(PREFIX) && eq > PREFIX.length()) {
+                values.put(arg.substring(PREFIX.length(), eq), arg.substring(eq + 1));
+            }
+        }
+
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("users", "1000")),
+                Math.max(1, Integer.parseInt(values.getOrDefault("cycles", "3"))),
+                Integer.parseInt(values.getOrDefault("mailbox-size", "100")),
+                Integer.parseInt(values.getOrDefault("arrivals-per-cycle", "5")),
+                Long.parseLong(values.getOrDefault("gmail-latency-ms", "30")),
+                Double.parseDouble(values.getOrDefault("gmail-429-rate", "0")),
+                Long.parseLong(values.getOrDefault("gemini-latency-ms", "300")),
+                Double.parseDouble(values.getOrDefault("gemini-429-rate", "0")),
+                Integer.parseInt(values.getOrDefault("push-users", "100")),
+                Math.max(1, Integer.parseInt(values.getOrDefault("push-burst", "3"))),
+                Integer.parseInt(values.getOrDefault("port", "0")));
+    }
+}
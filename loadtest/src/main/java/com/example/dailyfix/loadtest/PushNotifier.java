@@ -0,0 +1,65 @@
+package com.example.dailyfix.loadtest;
+
+import org.json.JSONObject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays the part of the Pub/Sub push subscription: posts Gmail watch notifications, wrapped in the same
+ * envelope Pub/Sub uses, to the application's /api/gmail/push endpoint.
+ */
+class PushNotifier {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI endpoint;
+    final LongAdder sent = new LongAdder();
+    // Anything but a 2xx, which Pub/Sub would redeliver
+    final LongAdder rejected = new LongAdder();
+
+    PushNotifier(int appPort, String verificationToken) {
+        this.endpoint = URI.create("http://127.0.0.1:" + appPort + "/api/gmail/push?token=" + verificationToken);
+    }
+
+    CompletableFuture<Void> notify(String email, long historyId) {
+        String data = new JSONObject()
+                .put("emailAddress", email)
+                .put("historyId", historyId)
+                .toString();
+        String envelope = new JSONObject()
+                .put("message", new JSONObject()
+                        .put("data", Base64.getEncoder().encodeToString(data.getBytes(StandardCharsets.UTF_8)))
+                        .put("messageId", Long.toString(System.nanoTime()))
+                        .put("publishTime", Instant.now().toString()))
+                .put("subscription", "projects/loadtest/subscriptions/gmail-push")
+                .toString();
+
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(envelope))
+                .build();
+
+        sent.increment();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        rejected.increment();
+                    }
+                })
+                .exceptionally(e -> {
+                    rejected.increment();
+                    return null;
+                });
+    }
+}
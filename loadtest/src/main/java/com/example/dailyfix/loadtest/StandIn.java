@@ -0,0 +1,86 @@
+package com.example.dailyfix.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared plumbing for the local API stand-ins: fixed added latency, random 429s and request counters.
+ */
+abstract class StandIn implements HttpHandler {
+
+    private final long latencyMs;
+    private final double throttleRate;
+    final LongAdder requests = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+
+    StandIn(long latencyMs, double throttleRate) {
+        this.latencyMs = latencyMs;
+        this.throttleRate = throttleRate;
+    }
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            // The server runs on virtual threads, so sleeping here models latency without tying up a pool
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            if (shouldThrottle()) {
+                throttled.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "application/json", tooManyRequests());
+                return;
+            }
+            serve(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Stand-in failed on " + exchange.getRequestURI() + ": " + e.getMessage());
+            send(exchange, 500, "text/plain", e.toString());
+        }
+    }
+
+    abstract void serve(HttpExchange exchange) throws IOException;
+
+    boolean shouldThrottle() {
+        return throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate;
+    }
+
+    static String tooManyRequests() {
+        return "{\"error\": {\"code\": 429, \"message\": \"Rate limit exceeded (stand-in)\", \"status\": \"RESOURCE_EXHAUSTED\", "
+                + "\"errors\": [{\"reason\": \"rateLimitExceeded\", \"message\": \"Rate limit exceeded (stand-in)\"}]}}";
+    }
+
+    static String readBody(HttpExchange exchange) throws IOException {
+        // google-api-client gzips request bodies unless told otherwise
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (bytes.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
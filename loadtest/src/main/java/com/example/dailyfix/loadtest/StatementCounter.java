@@ -0,0 +1,75 @@
+package com.example.dailyfix.loadtest;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts JDBC round trips below Hibernate, so JdbcTemplate and the OAuth client store are included.
+ * A prepared statement counts once however often it is executed in a batch; plain statements count per execute.
+ * Statements issued while {@link SyncProbe} marks the thread as syncing are also counted separately.
+ */
+class StatementCounter extends DelegatingDataSource {
+
+    static final LongAdder TOTAL = new LongAdder();
+    static final LongAdder SYNC = new LongAdder();
+    static final ThreadLocal<Boolean> IN_SYNC = ThreadLocal.withInitial(() -> false);
+
+    StatementCounter(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("prepare")) {
+                        count();
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (name.equals("createStatement")) {
+                        Statement statement = (Statement) result;
+                        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                                (p, m, a) -> {
+                                    if (m.getName().startsWith("execute")) {
+                                        count();
+                                    }
+                                    return invoke(statement, m, a);
+                                });
+                    }
+                    return result;
+                });
+    }
+
+    private static void count() {
+        TOTAL.increment();
+        if (IN_SYNC.get()) {
+            SYNC.increment();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.dailyfix.loadtest;
+
+import com.example.dailyfix.DailyfixApplication;
+import com.example.dailyfix.scheduler.MailSyncScheduler;
+import com.example.dailyfix.scheduler.TriageWorker;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end sync load test: the real application, a local Postgres, and in-process HTTP stand-ins
+ * for Gmail and Gemini, so it runs on a laptop with no network.
+ * <p>
+ * Seeds {@code --loadtest.users} synthetic mailboxes with ready access tokens, runs
+ * {@code --loadtest.cycles} sync cycles through MailSyncScheduler (the first is a full resync, later ones
+ * go through history), then drains the triage queue. For each phase it prints messages/sec, per-user
+ * sync p50/p99, JDBC statements per message and heap use.
+ * <p>
+ * A final push phase delivers {@code --loadtest.push-burst} messages to each of {@code --loadtest.push-users}
+ * mailboxes, posting a Gmail watch notification for every one, and reports how long the mail takes to be
+ * stored and triaged and how many syncs and Gmail calls the notifications cost.
+ */
+public class SyncLoadTest {
+
+    private static final String LOADTEST_USERS = "%@loadtest.dailyfix";
+    private static final long MB = 1024 * 1024;
+    private static final Duration TRIAGE_DEADLINE = Duration.ofMinutes(10);
+    private static final Duration PUSH_DEADLINE = Duration.ofMinutes(2);
+    private static final String PUSH_TOKEN = "loadtest";
+
+    private final LoadTestOptions options;
+    private final MailSyncScheduler scheduler;
+    private final TriageWorker triageWorker;
+    private final SyncProbe probe;
+    private final GmailStandIn gmail;
+    private final GeminiStandIn gemini;
+    private final PushNotifier pushNotifier;
+    // Bypasses StatementCounter so the harness's own bookkeeping isn't counted
+    private final JdbcTemplate jdbc;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakHeap = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        GmailStandIn gmail = new GmailStandIn(options);
+        GeminiStandIn gemini = new GeminiStandIn(options);
+
+        // 1. Stand-ins first: the app needs their address at startup
+        ExecutorService standInThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), options.port()), 1024);
+        server.createContext("/gmail/", gmail);
+        server.createContext("/batch", gmail);
+        server.createContext("/v1beta/", gemini);
+        server.setExecutor(standInThreads);
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        String geminiUrl = baseUrl + "v1beta/models/stand-in:generateContent";
+        System.out.println("Stand-ins listening on " + baseUrl);
+
+        // 2. Command-line arguments outrank every properties file, including the app's own
+        List<String> appArgs = new ArrayList<>(List.of(args));
+        appArgs.add("--dailyfix.gmail.root-url=" + baseUrl);
+        appArgs.add("--gemini.api.url=" + geminiUrl);
+        appArgs.add("--gemini.classification.url=" + geminiUrl);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DailyfixApplication.class, LoadTestConfig.class)
+                .profiles("loadtest")
+                .run(appArgs.toArray(String[]::new))) {
+            new SyncLoadTest(context, options, gmail, gemini).run();
+        } finally {
+            server.stop(0);
+            standInThreads.shutdownNow();
+        }
+    }
+
+    SyncLoadTest(ConfigurableApplicationContext context, LoadTestOptions options, GmailStandIn gmail, GeminiStandIn gemini) {
+        this.options = options;
+        this.scheduler = context.getBean(MailSyncScheduler.class);
+        this.triageWorker = context.getBean(TriageWorker.class);
+        this.probe = context.getBean(SyncProbe.class);
+        this.gmail = gmail;
+        this.gemini = gemini;
+        this.pushNotifier = new PushNotifier(
+                context.getEnvironment().getRequiredProperty("local.server.port", Integer.class), PUSH_TOKEN);
+
+        DataSource dataSource = context.getBean(DataSource.class);
+        if (dataSource instanceof DelegatingDataSource counting) {
+            dataSource = counting.getTargetDataSource();
+        }
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    void run() throws InterruptedException {
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "heap-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heapSampler.scheduleAtFixedRate(
+                () -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 50, TimeUnit.MILLISECONDS);
+
+        try {
+            // 1. Only the synthetic users' rows are touched, so pointing at a shared database is survivable
+            cleanUp();
+            seedUsers();
+            System.out.printf(Locale.ROOT, "Seeded %d mailboxes (%d messages each, %d arriving per cycle); "
+                            + "Gmail %d ms / %.0f%% 429, Gemini %d ms / %.0f%% 429%n",
+                    options.users(), options.mailboxSize(), options.arrivalsPerCycle(),
+                    options.gmailLatencyMs(), options.gmail429Rate() * 100,
+                    options.geminiLatencyMs(), options.gemini429Rate() * 100);
+
+            // 2. Ingest: the first cycle lists whole inboxes, the rest read history
+            for (int cycle = 1; cycle <= options.cycles(); cycle++) {
+                syncCycle(cycle);
+            }
+
+            // 3. Classification of everything the cycles stored
+            drainTriage();
+
+            // 4. Push: mail arrives between polls and is announced by notification
+            if (options.pushUsers() > 0) {
+                pushPhase(Math.min(options.pushUsers(), options.users()));
+            }
+
+            System.out.printf(Locale.ROOT, "Stand-ins: Gmail %d requests (%d messages, %d throttled), Gemini %d requests (%d throttled)%n",
+                    gmail.requests.sum(), gmail.messagesServed.sum(), gmail.throttled.sum(),
+                    gemini.requests.sum(), gemini.throttled.sum());
+        } finally {
+            heapSampler.shutdownNow();
+        }
+    }
+
+    private void syncCycle(int cycle) {
+        long messagesBefore = countMessages();
+        long statementsBefore = StatementCounter.SYNC.sum();
+        long gmailRequestsBefore = gmail.requests.sum();
+        long gmailThrottledBefore = gmail.throttled.sum();
+        probe.drain();
+        peakHeap.set(0);
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Void>> syncs = new ArrayList<>(options.users());
+        for (int user = 0; user < options.users(); user++) {
+            CompletableFuture<Void> sync = scheduler.submit(GmailStandIn.email(user));
+            if (sync != null) {
+                syncs.add(sync);
+            }
+        }
+        CompletableFuture.allOf(syncs.toArray(CompletableFuture[]::new)).join();
+
+        Duration wall = Duration.ofNanos(System.nanoTime() - start);
+        long messages = countMessages() - messagesBefore;
+        long statements = StatementCounter.SYNC.sum() - statementsBefore;
+        List<Long> samples = probe.drain();
+        Integer synced = jdbc.queryForObject(
+                "SELECT count(*) FROM users WHERE email LIKE ? AND last_synced_at >= ?",
+                Integer.class, LOADTEST_USERS, Timestamp.valueOf(startedAt));
+
+        System.out.printf(Locale.ROOT, "cycle %d (%s): %d/%d mailboxes synced, %d messages in %.1f s = %.0f msg/s | "
+                        + "per-user sync p50 %d ms, p99 %d ms | %.1f statements/message (%.1f/mailbox) | "
+                        + "Gmail %d requests, %d throttled | %s%n",
+                cycle, cycle == 1 ? "full resync" : "history", synced, options.users(), messages,
+                seconds(wall), perSecond(messages, wall),
+                percentileMs(samples, 0.50), percentileMs(samples, 0.99),
+                ratio(statements, messages), ratio(statements, samples.size()),
+                gmail.requests.sum() - gmailRequestsBefore, gmail.throttled.sum() - gmailThrottledBefore,
+                heap());
+    }
+
+    private void drainTriage() throws InterruptedException {
+        long pendingBefore = countPending();
+        long statementsBefore = StatementCounter.TOTAL.sum();
+        long geminiRequestsBefore = gemini.requests.sum();
+        long geminiThrottledBefore = gemini.throttled.sum();
+        peakHeap.set(0);
+
+        long start = System.nanoTime();
+        long pending = pendingBefore;
+        // Throttled messages come back after their backoff, so keep polling until they are done too
+        while (pending > 0 && Duration.ofNanos(System.nanoTime() - start).compareTo(TRIAGE_DEADLINE) < 0) {
+            triageWorker.drainQueue();
+            pending = countPending();
+            if (pending > 0) {
+                Thread.sleep(200);
+            }
+        }
+
+        Duration wall = Duration.ofNanos(System.nanoTime() - start);
+        long triaged = pendingBefore - pending;
+        long statements = StatementCounter.TOTAL.sum() - statementsBefore;
+
+        System.out.printf(Locale.ROOT, "triage: %d messages in %.1f s = %.0f msg/s, %d left over | "
+                        + "%.1f statements/message | Gemini %d requests, %d throttled | %s%n",
+                triaged, seconds(wall), perSecond(triaged, wall), pending,
+                ratio(statements, triaged),
+                gemini.requests.sum() - geminiRequestsBefore, gemini.throttled.sum() - geminiThrottledBefore,
+                heap());
+    }
+
+    private void pushPhase(int users) throws InterruptedException {
+        long messagesBefore = countMessages();
+        long gmailRequestsBefore = gmail.requests.sum();
+        probe.drain();
+        peakHeap.set(0);
+        gmail.pushMode();
+
+        // 1. Each new message gets its own notification, back to back, like a burst of incoming mail
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> posts = new ArrayList<>(users * options.pushBurst());
+        for (int user = 0; user < users; user++) {
+            for (int i = 0; i < options.pushBurst(); i++) {
+                posts.add(pushNotifier.notify(GmailStandIn.email(user), gmail.deliver(user)));
+            }
+        }
+        CompletableFuture.allOf(posts.toArray(CompletableFuture[]::new)).join();
+        Duration posted = Duration.ofNanos(System.nanoTime() - start);
+
+        // 2. The app syncs and triages on its own; both schedules are parked, so only push can get it there
+        long expected = (long) users * options.pushBurst();
+        Duration stored = null;
+        Duration triaged = null;
+        while (triaged == null && Duration.ofNanos(System.nanoTime() - start).compareTo(PUSH_DEADLINE) < 0) {
+            if (stored == null && countMessages() - messagesBefore >= expected) {
+                stored = Duration.ofNanos(System.nanoTime() - start);
+            }
+            if (stored != null && countPending() == 0) {
+                triaged = Duration.ofNanos(System.nanoTime() - start);
+            }
+            if (triaged == null) {
+                Thread.sleep(20);
+            }
+        }
+
+        long notifications = pushNotifier.sent.sum();
+        long syncs = probe.drain().size();
+        long gmailRequests = gmail.requests.sum() - gmailRequestsBefore;
+        System.out.printf(Locale.ROOT, "push: %d notifications for %d mailboxes posted in %.1f s, %d rejected | "
+                        + "%d/%d messages stored in %s, triaged in %s | %d syncs (%.2f/notification), "
+                        + "%.2f Gmail requests/notification | %s%n",
+                notifications, users, seconds(posted), pushNotifier.rejected.sum(),
+                countMessages() - messagesBefore, expected, elapsed(stored), elapsed(triaged),
+                syncs, ratio(syncs, notifications), ratio(gmailRequests, notifications),
+                heap());
+    }
+
+    private void seedUsers() {
+        List<Object[]> users = new ArrayList<>(options.users());
+        List<Object[]> clients = new ArrayList<>(options.users());
+        for (int user = 0; user < options.users(); user++) {
+            String email = GmailStandIn.email(user);
+            users.add(new Object[]{"Load Test " + user, email});
+            clients.add(new Object[]{email, (GmailStandIn.TOKEN_PREFIX + user).getBytes(StandardCharsets.UTF_8)});
+        }
+
+        jdbc.batchUpdate("INSERT INTO users (name, email, role, active, created_at, reauth_required) "
+                + "VALUES (?, ?, 'USER', TRUE, now(), FALSE)", users);
+        // Same rows JdbcOAuth2AuthorizedClientService writes after a real login
+        jdbc.batchUpdate("INSERT INTO oauth2_authorized_client (client_registration_id, principal_name, access_token_type, "
+                + "access_token_value, access_token_issued_at, access_token_expires_at, access_token_scopes) "
+                + "VALUES ('google', ?, 'Bearer', ?, now(), now() + INTERVAL '7 days', "
+                + "'https://www.googleapis.com/auth/gmail.modify,https://www.googleapis.com/auth/gmail.send')", clients);
+    }
+
+    private void cleanUp() {
+        String users = "SELECT id FROM users WHERE email LIKE ?";
+        String messages = "SELECT id FROM message WHERE user_id IN (" + users + ")";
+        String tasks = "SELECT id FROM task WHERE assigned_to_id IN (" + users + ")";
+
+        jdbc.update("DELETE FROM activity_log WHERE task_id IN (" + tasks + ") OR performed_by_id IN (" + users + ")",
+                LOADTEST_USERS, LOADTEST_USERS);
+        jdbc.update("DELETE FROM message_interaction WHERE message_id IN (" + messages + ") OR user_id IN (" + users + ")",
+                LOADTEST_USERS, LOADTEST_USERS);
+        jdbc.update("DELETE FROM task WHERE source_message_id IN (" + messages + ") OR assigned_to_id IN (" + users + ")",
+                LOADTEST_USERS, LOADTEST_USERS);
+        jdbc.update("DELETE FROM message WHERE user_id IN (" + users + ")", LOADTEST_USERS);
+        jdbc.update("DELETE FROM oauth2_authorized_client WHERE principal_name LIKE ?", LOADTEST_USERS);
+        jdbc.update("DELETE FROM users WHERE email LIKE ?", LOADTEST_USERS);
+    }
+
+    private long countMessages() {
+        return jdbc.queryForObject("SELECT count(*) FROM message m JOIN users u ON u.id = m.user_id WHERE u.email LIKE ?",
+                Long.class, LOADTEST_USERS);
+    }
+
+    private long countPending() {
+        return jdbc.queryForObject("SELECT count(*) FROM message m JOIN users u ON u.id = m.user_id "
+                + "WHERE u.email LIKE ? AND NOT m.processed", Long.class, LOADTEST_USERS);
+    }
+
+    private String heap() {
+        long peak = peakHeap.get();
+        memory.gc();
+        return String.format(Locale.ROOT, "heap peak %d MB, %d MB after GC",
+                peak / MB, memory.getHeapMemoryUsage().getUsed() / MB);
+    }
+
+    private static long percentileMs(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(Math.clamp(index, 0, sortedNanos.size() - 1)));
+    }
+
+    private static String elapsed(Duration duration) {
+        return duration == null ? "(not within " + PUSH_DEADLINE.toMinutes() + " min)"
+                : String.format(Locale.ROOT, "%.2f s", seconds(duration));
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+
+    private static double perSecond(long count, Duration duration) {
+        return duration.isZero() ? 0 : count / seconds(duration);
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.dailyfix.loadtest;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Times each mailbox sync exactly where the scheduler's dailyfix.sync.user timer does (inside the
+ * concurrency permit), but keeps every sample so each cycle gets exact percentiles instead of the
+ * timer's decaying window. Also tags the thread so StatementCounter can attribute statements to sync.
+ */
+@Aspect
+class SyncProbe {
+
+    private final ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+
+    @Around("execution(* com.example.dailyfix.service.MessageService.processWithToken(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        StatementCounter.IN_SYNC.set(true);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            samples.add(System.nanoTime() - start);
+            StatementCounter.IN_SYNC.set(false);
+        }
+    }
+
+    /**
+     * Returns the per-user sync times recorded since the last call, sorted, in nanoseconds.
+     */
+    List<Long> drain() {
+        List<Long> drained = new ArrayList<>();
+        for (Long sample; (sample = samples.poll()) != null; ) {
+            drained.add(sample);
+        }
+        Collections.sort(drained);
+        return drained;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dailyfix.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timing for {@link Traced} methods. With DEBUG off, only a sampled fraction of calls
+ * ({@code dailyfix.tracing.sample-rate}) is timed and logged; the rest pay one branch.
+ * Failures are always logged.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    private static final Logger logger =
+            LoggerFactory.getLogger(TracingAspect.class);
+
+    private final double sampleRate;
+
+    public TracingAspect(@Value("${dailyfix.tracing.sample-rate:0.0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Around("@annotation(com.example.dailyfix.aop.Traced) || @within(com.example.dailyfix.aop.Traced)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean debug = logger.isDebugEnabled();
+        boolean sampled = debug || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+
+        long start = sampled ? System.nanoTime() : 0L;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            logger.error(
+                    "Exception in {}() : {}",
+                    joinPoint.getSignature().toShortString(),
+                    ex.getMessage()
+            );
+            throw ex;
+        } finally {
+            if (sampled) {
+                long micros = (System.nanoTime() - start) / 1_000;
+                if (debug) {
+                    logger.debug("{}() took {} µs", joinPoint.getSignature().toShortString(), micros);
+                } else {
+                    logger.info("{}() took {} µs (sampled)", joinPoint.getSignature().toShortString(), micros);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.dailyfix.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Rejects null arguments to the annotated method with IllegalArgumentException.
+ * Parameters marked {@code @Nullable} (jspecify) and primitives are not checked.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidateArgs {
+}
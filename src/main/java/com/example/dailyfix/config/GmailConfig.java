@@ -1,21 +1,23 @@
 package com.example.dailyfix.config;
 
+import com.google.api.client.googleapis.apache.v2.GoogleApacheHttpTransport;
+import com.google.api.client.http.HttpTransport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
 @Configuration
 public class GmailConfig {
 
-    @Bean
-    public com.google.api.services.gmail.Gmail gmailService(
-            org.springframework.security.oauth2.client.OAuth2AuthorizedClientService clientService) {
-
-        // This is a simplified version for local dev
-        // In a real app, you'd build the NetHttpTransport and JsonFactory here
-        return new com.google.api.services.gmail.Gmail.Builder(
-                new com.google.api.client.http.javanet.NetHttpTransport(),
-                new com.google.api.client.json.gson.GsonFactory(),
-                null // You can pass a request initializer to handle tokens
-        ).setApplicationName("DailyFix").build();
+    /**
+     * One Apache-backed transport for every Gmail call in the app. It loads Google's trust store once
+     * and keeps a pool of keep-alive connections, so syncs and sends reuse TLS sessions instead of
+     * building a new transport each time.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public HttpTransport gmailHttpTransport() throws GeneralSecurityException, IOException {
+        return GoogleApacheHttpTransport.newTrustedTransport();
     }
 }
@@ -1,5 +1,6 @@
 package com.example.dailyfix.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.client.*;
@@ -7,18 +8,22 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
 
+import java.time.Duration;
+
 @Configuration
 public class OAuth2Config {
 
     @Bean
     public OAuth2AuthorizedClientManager authorizedClientManager(
             ClientRegistrationRepository clientRegistrationRepository,
-            OAuth2AuthorizedClientService authorizedClientService) {
+            OAuth2AuthorizedClientService authorizedClientService,
+            @Value("${dailyfix.oauth.refresh-ahead-seconds:300}") long refreshAheadSeconds) {
 
         OAuth2AuthorizedClientProvider authorizedClientProvider =
                 OAuth2AuthorizedClientProviderBuilder.builder()
                         .authorizationCode()
-                        .refreshToken() // This is critical for background sync
+                        // This is critical for background sync; the skew lets GmailAccessTokenProvider renew early
+                        .refreshToken(refresh -> refresh.clockSkew(Duration.ofSeconds(refreshAheadSeconds)))
                         .build();
 
         // CHANGE: Use AuthorizedClientServiceOAuth2AuthorizedClientManager instead of Default
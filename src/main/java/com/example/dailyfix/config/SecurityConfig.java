@@ -44,6 +44,8 @@ public class SecurityConfig {
                         // Permit OPTIONS requests for CORS preflight
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/", "/login/**", "/oauth2/**", "/api/user/me").permitAll()
+                        // Authenticated by its verification token instead of a session
+                        .requestMatchers("/api/gmail/push").permitAll()
                         .anyRequest().authenticated()
                 )
                 // FIX: Handle unauthorized API calls with 401 instead of 302 Redirect
@@ -76,7 +78,7 @@ public class SecurityConfig {
         config.setAllowCredentials(true);
 
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Cache-Control", "X-Requested-With"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Cache-Control", "X-Requested-With", "Last-Event-ID"));
 
         // Optional: Expose headers if needed for frontend logic
         config.setExposedHeaders(List.of("Set-Cookie"));
@@ -1,12 +1,8 @@
 package com.example.dailyfix.controller;
 
-import com.example.dailyfix.enums.Priority;
-import com.example.dailyfix.enums.TaskStatus;
-import com.example.dailyfix.model.Message;
-import com.example.dailyfix.model.Task;
-import com.example.dailyfix.service.AIService;
+import com.example.dailyfix.dto.response.DashboardCounts;
+import com.example.dailyfix.service.DashboardSummaryService;
 import com.example.dailyfix.service.MessageService;
-import com.example.dailyfix.service.TaskService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,22 +10,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
     private final MessageService messageService;
-    private final TaskService taskService;
-    private final AIService aiService;
+    private final DashboardSummaryService dashboardSummaryService;
 
-    public DashboardController(MessageService messageService, TaskService taskService, AIService aiService) {
+    public DashboardController(MessageService messageService, DashboardSummaryService dashboardSummaryService) {
         this.messageService = messageService;
-        this.taskService = taskService;
-        this.aiService = aiService;
+        this.dashboardSummaryService = dashboardSummaryService;
     }
 
     @GetMapping("/stats")
@@ -37,40 +29,21 @@ public class DashboardController {
         String email = authentication.getName();
         LocalDateTime threeDaysAgo = LocalDateTime.now().minusDays(3);
 
-        List<Message> recentMessages = messageService.getMessagesByUserEmail(email).stream()
-                .filter(m -> m.getReceivedAt() != null && m.getReceivedAt().isAfter(threeDaysAgo))
-                .toList();
+        // 1. Counts come from one aggregate query, independent of how much history the user has
+        DashboardCounts counts = messageService.getDashboardCounts(email, threeDaysAgo).orElse(null);
+        long totalMails = counts != null ? counts.getTotalMails() : 0;
+        long urgentCount = counts != null ? counts.getUrgentCount() : 0;
+        long taskCount = counts != null ? counts.getTaskCount() : 0;
 
-
-        String mailData = recentMessages.stream()
-                .map(m -> String.format("From: %s | Subject: %s | Content: %s",
-                        m.getSenderEmail() != null ? m.getSenderEmail() : "Unknown",
-                        m.getSubject(),
-                        m.getContent()))
-                .collect(Collectors.joining("\n---\n"));
-
-        List<Task> openTasks = taskService.getTasksByAssignedUserEmail(email).stream()
-                .filter(t -> t.getStatus() == TaskStatus.OPEN)
-                .toList();
-
-        String taskData = openTasks.stream()
-                .map(t -> t.getTitle() + " - " + t.getDescription())
-                .collect(Collectors.joining(" | "));
-
-        String urgentSummary = (recentMessages.isEmpty())
-                ? "Recent correspondence is clear."
-                : aiService.summarizeEmails(mailData);
-
-        String normalSummary = (openTasks.isEmpty())
-                ? "No active tasks currently pending."
-                : aiService.summarizeTasks(taskData);
+        // 2. Summaries are cached per user and only regenerated when the underlying rows change
+        DashboardSummaryService.DashboardSummary summary = dashboardSummaryService.getSummary(email, threeDaysAgo);
 
         return ResponseEntity.ok(Map.of(
-                "totalMails", (long) recentMessages.size(),
-                "urgentCount", recentMessages.stream().filter(m -> m.getPriority() == Priority.HIGH).count(),
-                "taskCount", (long) openTasks.size(),
-                "urgentSummary", urgentSummary,
-                "normalSummary", normalSummary
+                "totalMails", totalMails,
+                "urgentCount", urgentCount,
+                "taskCount", taskCount,
+                "urgentSummary", summary.urgentSummary(),
+                "normalSummary", summary.normalSummary()
         ));
     }
-}
\ No newline at end of file
+}
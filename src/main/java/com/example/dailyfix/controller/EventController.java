@@ -0,0 +1,40 @@
+package com.example.dailyfix.controller;
+
+import com.example.dailyfix.service.InboxEventBroadcaster;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", allowCredentials = "true")
+public class EventController {
+
+    private final InboxEventBroadcaster broadcaster;
+
+    public EventController(InboxEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Live inbox deltas for the signed-in user: MESSAGE_TRIAGED, TASK_CREATED and TASK_STATUS_CHANGED events
+     * carrying the updated list row, or RESYNC when missed events can't be replayed and the lists should be reloaded.
+     * EventSource sends Last-Event-ID on reconnect; the query parameter covers a fresh page resuming a stream.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(defaultValue = "") String lastEventId,
+                             Authentication authentication) {
+        String resumeFrom = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        return broadcaster.subscribe(getEmailFromAuth(authentication), resumeFrom);
+    }
+
+    private String getEmailFromAuth(Authentication authentication) {
+        if (authentication instanceof OAuth2AuthenticationToken oauthToken) {
+            return oauthToken.getPrincipal().getAttribute("email");
+        }
+        return authentication.getName();
+    }
+}
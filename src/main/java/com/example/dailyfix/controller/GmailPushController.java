@@ -0,0 +1,39 @@
+package com.example.dailyfix.controller;
+
+import com.example.dailyfix.service.GmailPushService;
+import org.json.JSONException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Push endpoint for the Gmail watch Pub/Sub subscription. Pub/Sub redelivers anything that isn't a 2xx,
+ * so only bad tokens and server errors are refused; unusable payloads are acknowledged and dropped.
+ */
+@RestController
+@RequestMapping("/api/gmail/push")
+public class GmailPushController {
+
+    private final GmailPushService gmailPushService;
+
+    public GmailPushController(GmailPushService gmailPushService) {
+        this.gmailPushService = gmailPushService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> receive(@RequestParam(defaultValue = "") String token, @RequestBody String envelope) {
+        if (!gmailPushService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!gmailPushService.isAuthentic(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            gmailPushService.onNotification(envelope);
+        } catch (JSONException | IllegalArgumentException e) {
+            System.err.println("Dropping malformed Gmail push notification: " + e.getMessage());
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
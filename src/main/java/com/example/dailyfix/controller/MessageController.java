@@ -1,12 +1,11 @@
 package com.example.dailyfix.controller;
 
+import com.example.dailyfix.dto.response.CursorPage;
 import com.example.dailyfix.enums.Priority;
-import com.example.dailyfix.model.Message;
 import com.example.dailyfix.service.MessageService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -25,27 +24,55 @@ public class MessageController {
     @PostMapping("/sync")
     public ResponseEntity<String> triggerSync(Authentication authentication) {
         messageService.fetchAndProcessGmail(authentication);
-        return ResponseEntity.ok("Gemini AI sync started in the background! Refresh in 30 seconds.");
+        return ResponseEntity.ok("Gemini AI sync started in the background! New mail and tasks will arrive on /api/events.");
     }
 
+    /**
+     * Newest-first, keyset-paginated. Pass the previous response's nextCursor to continue.
+     */
     @GetMapping("/my-messages")
-    public ResponseEntity<List<Message>> getMyMessages(Authentication authentication) {
-        return ResponseEntity.ok(messageService.getMessagesByUserEmail(authentication.getName()));
+    public ResponseEntity<?> getMyMessages(
+            Authentication authentication,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(messageService.getMessagePage(authentication.getName(), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     /**
      * AI-FILTERED VIEW: Use this to see only "HIGH" priority items confirmed by Gemini.
      */
     @GetMapping("/priority/{priority}")
-    public ResponseEntity<List<Message>> getByPriority(
+    public ResponseEntity<?> getByPriority(
             Authentication authentication,
-            @PathVariable Priority priority) {
-        return ResponseEntity.ok(messageService.getMessagesByUserEmailAndPriority(authentication.getName(), priority));
+            @PathVariable Priority priority,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(messageService.getMessagePageByPriority(authentication.getName(), priority, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Full message including the body, for the reading pane.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getMessage(@PathVariable Long id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(messageService.getMessageDetail(id, authentication.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @PostMapping("/{id}/reprocess")
     public ResponseEntity<String> reprocess(@PathVariable Long id) {
         messageService.reprocessMessage(id);
-        return ResponseEntity.ok("Message re-analyzed by AI successfully.");
+        return ResponseEntity.ok("Message queued for AI re-analysis.");
     }
 }
\ No newline at end of file
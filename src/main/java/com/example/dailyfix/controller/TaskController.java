@@ -1,16 +1,23 @@
 package com.example.dailyfix.controller;
 
+import com.example.dailyfix.dto.response.CursorPage;
 import com.example.dailyfix.model.Task;
 import com.example.dailyfix.service.AIService;
 import com.example.dailyfix.service.MessageService;
 import com.example.dailyfix.service.TaskService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -20,33 +27,60 @@ public class TaskController {
     private final TaskService taskService;
     private final AIService aiService;
     private final MessageService messageService;
+    private final long draftStreamTimeoutMs;
 
-    public TaskController(TaskService taskService, AIService aiService, MessageService messageService) {
+    public TaskController(TaskService taskService,
+                          AIService aiService,
+                          MessageService messageService,
+                          @Value("${dailyfix.ai.draft-stream-timeout-ms:60000}") long draftStreamTimeoutMs) {
         this.taskService = taskService;
         this.aiService = aiService;
         this.messageService = messageService;
+        this.draftStreamTimeoutMs = draftStreamTimeoutMs;
     }
 
     // --- 1. GET ALL TASKS ---
     @GetMapping
-    public List<Task> getAllTasks() {
-        return taskService.getAllTasks();
+    public ResponseEntity<?> getAllTasks(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(taskService.getAllTaskPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     // --- 2. GET MY TASKS (Updated for Simultaneous Refresh) ---
     @GetMapping("/my-tasks")
-    public List<Task> getMyTasks(
+    public ResponseEntity<?> getMyTasks(
             @RequestParam(required = false) Long messageId,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
             Authentication authentication
     ) {
         String email = getEmailFromAuth(authentication);
 
-        // If a messageId is passed from React, filter the results
+        // If a messageId is passed from React, filter the results (a message has at most a handful of tasks)
         if (messageId != null) {
-            return taskService.getTasksByMessageIdAndEmail(messageId, email);
+            return ResponseEntity.ok(taskService.getTasksByMessageIdAndEmail(messageId, email));
         }
 
-        return taskService.getTasksByAssignedUserEmail(email);
+        try {
+            return ResponseEntity.ok(taskService.getTaskPage(email, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Full task including the description
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getTask(@PathVariable Long id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(taskService.getTaskDetail(id, getEmailFromAuth(authentication)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     // --- 3. COMPLETE TASK ---
@@ -99,6 +133,44 @@ public class TaskController {
         return ResponseEntity.ok(Map.of("reply", aiDraft));
     }
 
+    // Same draft, streamed as Server-Sent Events: "chunk" events with text as it is generated, then "done".
+    // The servlet thread is released immediately and a disconnect stops the Gemini request.
+    @GetMapping(value = "/{id}/generate-reply/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamReply(@PathVariable Long id) {
+        Task task = taskService.getTaskById(id);
+        String context = "Task: " + task.getTitle() + " | Content: " + task.getDescription();
+
+        SseEmitter emitter = new SseEmitter(draftStreamTimeoutMs);
+        CompletableFuture<Void> draft = aiService.streamDraft(context, chunk -> {
+            try {
+                emitter.send(SseEmitter.event().name("chunk").data(chunk));
+            } catch (IOException e) {
+                // Client is gone; throwing here cancels the upstream request
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        emitter.onTimeout(() -> draft.cancel(true));
+        emitter.onError(e -> draft.cancel(true));
+        emitter.onCompletion(() -> draft.cancel(true));
+
+        draft.whenComplete((ignored, error) -> {
+            if (error instanceof CancellationException) return;
+            try {
+                if (error == null) {
+                    emitter.send(SseEmitter.event().name("done").data(""));
+                } else {
+                    System.err.println("Draft stream failed for task " + id + ": " + error.getMessage());
+                    emitter.send(SseEmitter.event().name("error").data("Draft generation failed"));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Already disconnected or completed
+            }
+        });
+        return emitter;
+    }
+
     @PostMapping("/{id}/send-reply")
     public ResponseEntity<?> sendReply(@PathVariable Long id, @RequestBody Map<String, String> payload) {
         String replyText = payload.get("replyText");
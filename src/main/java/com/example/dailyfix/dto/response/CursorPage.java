@@ -0,0 +1,59 @@
+package com.example.dailyfix.dto.response;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a newest-first keyset listing. {@code nextCursor} is null on the last page;
+ * otherwise pass it back unchanged to get the rows that follow.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * Sort key of the last row on a page: (timestamp, id), both descending.
+     */
+    public record Position(LocalDateTime at, long id) {
+
+        // Sorts after every real row, so the first page needs no separate query
+        public static final Position FIRST = new Position(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+        public String encode() {
+            String raw = at + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Position decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return FIRST;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Position(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    public static int clampSize(int requested) {
+        return Math.clamp(requested, 1, MAX_SIZE);
+    }
+
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows; the extra row only signals that more exist.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Position> positionOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = List.copyOf(fetched.subList(0, size));
+        return new CursorPage<>(items, positionOf.apply(items.get(size - 1)).encode());
+    }
+}
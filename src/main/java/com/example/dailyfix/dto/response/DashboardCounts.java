@@ -0,0 +1,13 @@
+package com.example.dailyfix.dto.response;
+
+/**
+ * Dashboard headline numbers, computed by the database in a single aggregate query.
+ */
+public interface DashboardCounts {
+
+    long getTotalMails();
+
+    long getUrgentCount();
+
+    long getTaskCount();
+}
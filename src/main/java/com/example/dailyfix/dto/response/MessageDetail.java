@@ -0,0 +1,17 @@
+package com.example.dailyfix.dto.response;
+
+import com.example.dailyfix.enums.MessageIntent;
+import com.example.dailyfix.enums.Priority;
+
+import java.time.LocalDateTime;
+
+public record MessageDetail(Long id,
+                            String senderEmail,
+                            String senderDomain,
+                            String subject,
+                            String content,
+                            LocalDateTime receivedAt,
+                            Priority priority,
+                            MessageIntent intent,
+                            boolean processed) {
+}
@@ -0,0 +1,26 @@
+package com.example.dailyfix.dto.response;
+
+import com.example.dailyfix.enums.MessageIntent;
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.model.Message;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view row for a message; the body is only returned by the detail endpoint.
+ */
+public record MessageSummary(Long id,
+                             String senderEmail,
+                             String senderDomain,
+                             String subject,
+                             LocalDateTime receivedAt,
+                             Priority priority,
+                             MessageIntent intent,
+                             boolean processed) {
+
+    public static MessageSummary from(Message message) {
+        return new MessageSummary(message.getId(), message.getSenderEmail(), message.getSenderDomain(),
+                message.getSubject(), message.getReceivedAt(), message.getPriority(), message.getIntent(),
+                message.isProcessed());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.dailyfix.dto.response;
+
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.enums.TaskStatus;
+
+import java.time.LocalDateTime;
+
+public record TaskDetail(Long id,
+                         String title,
+                         String description,
+                         Priority priority,
+                         TaskStatus status,
+                         LocalDateTime createdAt,
+                         LocalDateTime dueDate,
+                         Long sourceMessageId,
+                         String sourceSenderEmail) {
+}
@@ -0,0 +1,26 @@
+package com.example.dailyfix.dto.response;
+
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.enums.TaskStatus;
+import com.example.dailyfix.model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view row for a task; the description is only returned by the detail endpoint.
+ */
+public record TaskSummary(Long id,
+                          String title,
+                          Priority priority,
+                          TaskStatus status,
+                          LocalDateTime createdAt,
+                          LocalDateTime dueDate,
+                          Long sourceMessageId) {
+
+    // Reading the id of a lazy sourceMessage proxy does not load it
+    public static TaskSummary from(Task task) {
+        return new TaskSummary(task.getId(), task.getTitle(), task.getPriority(), task.getStatus(),
+                task.getCreatedAt(), task.getDueDate(),
+                task.getSourceMessage() != null ? task.getSourceMessage().getId() : null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.dailyfix.event;
+
+/**
+ * Published when a user's triaged mail or tasks change, so derived views (dashboard summaries) can refresh.
+ */
+public record InboxChangedEvent(String userEmail) {
+}
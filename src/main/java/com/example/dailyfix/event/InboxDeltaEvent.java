@@ -0,0 +1,14 @@
+package com.example.dailyfix.event;
+
+/**
+ * One incremental change to a user's inbox, pushed to their open /api/events streams once it has committed.
+ * The payload is the MessageSummary or TaskSummary row the list views would show after the change.
+ */
+public record InboxDeltaEvent(String userEmail, Type type, Object payload) {
+
+    public enum Type {
+        MESSAGE_TRIAGED,
+        TASK_CREATED,
+        TASK_STATUS_CHANGED
+    }
+}
@@ -4,7 +4,9 @@ import com.example.dailyfix.enums.ActionType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -14,14 +16,20 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ActivityLog {
 
+    // Pooled sequence ids: Hibernate can batch the inserts AuditWriter flushes (IDENTITY can't be batched)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_log_seq")
+    @SequenceGenerator(name = "activity_log_seq", sequenceName = "activity_log_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Task task;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User performedBy;
 
     @Enumerated(EnumType.STRING)
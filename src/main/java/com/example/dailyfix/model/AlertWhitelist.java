@@ -1,5 +1,6 @@
 package com.example.dailyfix.model;
 
+import com.example.dailyfix.service.DomainPolicyChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,6 +13,7 @@ import java.util.Date;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(DomainPolicyChangeListener.class)
 public class AlertWhitelist {
 
     @Id
@@ -0,0 +1,30 @@
+package com.example.dailyfix.model;
+
+import com.example.dailyfix.enums.MessageIntent;
+import com.example.dailyfix.enums.Priority;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassificationCacheEntry {
+
+    // SHA-256 of the normalized sender domain, subject, content and trust level
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    private Priority priority;
+
+    @Enumerated(EnumType.STRING)
+    private MessageIntent intent;
+
+    private LocalDateTime createdAt;
+}
@@ -6,7 +6,10 @@ import com.example.dailyfix.enums.SourceType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.Date;
@@ -21,7 +24,10 @@ public class Message {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy: read paths that need the owner ask for it through an entity graph (see MessageRepository)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     private String senderEmail;
@@ -48,5 +54,14 @@ public class Message {
     @Column(unique = true)
     private String gmailId;
 
+    // Lower-cased "name: value" lines of the few headers the triage rules look at (List-Unsubscribe, ...)
+    @Column(columnDefinition = "TEXT")
+    private String triageHeaders;
+
+    // Triage queue bookkeeping: claim count and the earliest time a worker may (re)claim the row
+    @ColumnDefault("0")
+    private int triageAttempts;
+
+    private LocalDateTime nextTriageAt;
 
 }
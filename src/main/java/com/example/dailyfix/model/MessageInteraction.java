@@ -4,7 +4,9 @@ import com.example.dailyfix.enums.InteractionType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -14,16 +16,22 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class MessageInteraction {
 
+    // Pooled sequence ids: Hibernate can batch the inserts AuditWriter flushes (IDENTITY can't be batched)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_interaction_seq")
+    @SequenceGenerator(name = "message_interaction_seq", sequenceName = "message_interaction_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id") // Best practice to explicitly name join columns
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "message_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Message message;
 
     @Enumerated(EnumType.STRING)
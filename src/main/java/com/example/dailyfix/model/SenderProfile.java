@@ -1,6 +1,7 @@
 package com.example.dailyfix.model;
 
 import com.example.dailyfix.enums.TrustLevel;
+import com.example.dailyfix.service.DomainPolicyChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +14,7 @@ import java.util.Date;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(DomainPolicyChangeListener.class)
 public class SenderProfile {
 
     @Id
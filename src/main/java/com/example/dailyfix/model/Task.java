@@ -5,7 +5,9 @@ import com.example.dailyfix.enums.TaskStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.Date;
@@ -31,10 +33,15 @@ public class Task {
     private TaskStatus status;
 
 
-    @ManyToOne
+    // Lazy: TaskRepository exposes entity graphs for the paths that read these
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User assignedTo;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Message sourceMessage;
 
     private LocalDateTime createdAt;
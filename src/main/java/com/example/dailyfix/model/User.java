@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.math.BigInteger;
 import java.time.LocalDateTime;
 
 @Entity
@@ -32,4 +34,16 @@ public class User {
     private boolean active;
 
     private LocalDateTime createdAt;
+
+    // Gmail sync checkpoint: the next cycle only pulls history recorded after this id
+    private BigInteger gmailHistoryId;
+
+    private LocalDateTime lastSyncedAt;
+
+    // Expiry of the Gmail push watch; while it is live, polling this user is only a safety net
+    private LocalDateTime gmailWatchExpiresAt;
+
+    // Set when Google rejects the refresh token; background sync skips the user until they log in again
+    @ColumnDefault("false")
+    private boolean reauthRequired;
 }
@@ -0,0 +1,17 @@
+package com.example.dailyfix.repository;
+
+import com.example.dailyfix.model.ClassificationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClassificationCacheEntryRepository extends JpaRepository<ClassificationCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    long deleteByCreatedAtBefore(LocalDateTime cutoff);
+}
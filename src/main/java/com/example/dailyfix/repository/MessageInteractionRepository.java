@@ -1,6 +1,7 @@
 package com.example.dailyfix.repository;
 
 import com.example.dailyfix.model.MessageInteraction;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,6 +9,7 @@ import java.util.List;
 
 @Repository
 public interface MessageInteractionRepository extends JpaRepository<MessageInteraction, Long> {
+    @EntityGraph(attributePaths = {"message", "user"})
     List<MessageInteraction> findByMessage_SenderDomain(String senderDomain);
 
 }
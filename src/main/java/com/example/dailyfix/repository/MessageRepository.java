@@ -1,20 +1,96 @@
 package com.example.dailyfix.repository;
 
+import com.example.dailyfix.dto.response.DashboardCounts;
+import com.example.dailyfix.dto.response.MessageDetail;
+import com.example.dailyfix.dto.response.MessageSummary;
 import com.example.dailyfix.enums.Priority;
 import com.example.dailyfix.model.Message;
 import com.example.dailyfix.model.User;
 import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long> {
+public interface MessageRepository extends JpaRepository<Message, Long>, MessageRepositoryCustom {
 
-    boolean existsByGmailId(String gmailId);
-    List<Message> findByUserEmail(String email);
-    List<Message> findByUserEmailAndPriority(String email, Priority priority);
+    // Triage reads message.user (task assignment, change events); fetch it in the same select
+    @EntityGraph(attributePaths = "user")
+    List<Message> findWithUserByIdIn(Collection<Long> ids);
+
+    @Query("select m.gmailId from Message m where m.gmailId in :gmailIds")
+    Set<String> findExistingGmailIds(@Param("gmailIds") Collection<String> gmailIds);
+
+    // Keyset pages, newest first: rows strictly after the (at, id) position of the previous page
+    @Query("""
+            select new com.example.dailyfix.dto.response.MessageSummary(
+                   m.id, m.senderEmail, m.senderDomain, m.subject, m.receivedAt, m.priority, m.intent, m.processed)
+            from Message m
+            where m.user.email = :email
+              and (m.receivedAt < :at or (m.receivedAt = :at and m.id < :id))
+            order by m.receivedAt desc, m.id desc
+            """)
+    List<MessageSummary> findSummaryPage(@Param("email") String email,
+                                         @Param("at") LocalDateTime at,
+                                         @Param("id") long id,
+                                         Limit limit);
+
+    @Query("""
+            select new com.example.dailyfix.dto.response.MessageSummary(
+                   m.id, m.senderEmail, m.senderDomain, m.subject, m.receivedAt, m.priority, m.intent, m.processed)
+            from Message m
+            where m.user.email = :email and m.priority = :priority
+              and (m.receivedAt < :at or (m.receivedAt = :at and m.id < :id))
+            order by m.receivedAt desc, m.id desc
+            """)
+    List<MessageSummary> findSummaryPageByPriority(@Param("email") String email,
+                                                   @Param("priority") Priority priority,
+                                                   @Param("at") LocalDateTime at,
+                                                   @Param("id") long id,
+                                                   Limit limit);
+
+    @Query("""
+            select new com.example.dailyfix.dto.response.MessageDetail(
+                   m.id, m.senderEmail, m.senderDomain, m.subject, m.content, m.receivedAt, m.priority, m.intent, m.processed)
+            from Message m
+            where m.id = :id and m.user.email = :email
+            """)
+    Optional<MessageDetail> findDetail(@Param("id") Long id, @Param("email") String email);
+
+    List<Message> findByUserEmailAndReceivedAtAfterOrderByReceivedAtDesc(String email, LocalDateTime since, Limit limit);
+
+    // Served by idx_message_user_received and idx_task_assignee_status_created
+    @Query(value = """
+            SELECT count(m.id) AS "totalMails",
+                   count(m.id) FILTER (WHERE m.priority = 'HIGH') AS "urgentCount",
+                   (SELECT count(*) FROM task t
+                     WHERE t.assigned_to_id = u.id AND t.status = 'OPEN') AS "taskCount"
+            FROM users u
+            LEFT JOIN message m ON m.user_id = u.id AND m.received_at > :since
+            WHERE u.email = :email
+            GROUP BY u.id
+            """, nativeQuery = true)
+    Optional<DashboardCounts> countDashboardStats(@Param("email") String email, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("update Message m set m.nextTriageAt = :retryAt where m.id = :id")
+    void scheduleTriageRetry(@Param("id") Long id, @Param("retryAt") LocalDateTime retryAt);
+
+    @Modifying
+    @Transactional
+    @Query("update Message m set m.priority = :priority, m.processed = true where m.id = :id")
+    void abandonTriage(@Param("id") Long id, @Param("priority") Priority priority);
 }
 
@@ -0,0 +1,21 @@
+package com.example.dailyfix.repository;
+
+import com.example.dailyfix.model.Message;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface MessageRepositoryCustom {
+
+    /**
+     * Inserts all messages in one statement, skipping any whose gmailId already exists.
+     * Returns only the rows this call actually inserted, with their generated ids set.
+     */
+    List<Message> insertIgnoringDuplicates(List<Message> messages);
+
+    /**
+     * Atomically leases up to {@code limit} unprocessed messages for triage and returns their ids.
+     * Rows locked by another worker are skipped; a lease that is never completed expires after {@code lease}.
+     */
+    List<Long> claimForTriage(int limit, Duration lease);
+}
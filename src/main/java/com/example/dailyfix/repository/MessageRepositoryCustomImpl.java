@@ -0,0 +1,91 @@
+package com.example.dailyfix.repository;
+
+import com.example.dailyfix.model.Message;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO message (user_id, sender_email, sender_domain, source_type, subject, content, " +
+                    "received_at, intent, priority, processed, gmail_id, triage_headers) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ON_CONFLICT = " ON CONFLICT (gmail_id) DO NOTHING RETURNING id, gmail_id";
+
+    private static final String CLAIM_FOR_TRIAGE =
+            "UPDATE message SET next_triage_at = ?, triage_attempts = triage_attempts + 1 " +
+                    "WHERE id IN (SELECT id FROM message WHERE processed = false " +
+                    "AND (next_triage_at IS NULL OR next_triage_at <= ?) " +
+                    "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                    "RETURNING id";
+
+    // Keeps each statement well under PostgreSQL's 32767 bind parameter limit
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessageRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Message> insertIgnoringDuplicates(List<Message> messages) {
+        List<Message> inserted = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += MAX_ROWS_PER_STATEMENT) {
+            inserted.addAll(insertChunk(messages.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, messages.size()))));
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<Long> claimForTriage(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.queryForList(CLAIM_FOR_TRIAGE, Long.class,
+                Timestamp.valueOf(now.plus(lease)), Timestamp.valueOf(now), limit);
+    }
+
+    private List<Message> insertChunk(List<Message> messages) {
+        String sql = INSERT_PREFIX
+                + String.join(", ", Collections.nCopies(messages.size(), ROW_PLACEHOLDERS))
+                + ON_CONFLICT;
+
+        List<Object> args = new ArrayList<>(messages.size() * 12);
+        for (Message m : messages) {
+            args.add(m.getUser() != null ? m.getUser().getId() : null);
+            args.add(m.getSenderEmail());
+            args.add(m.getSenderDomain());
+            args.add(m.getSourceType() != null ? m.getSourceType().name() : null);
+            args.add(m.getSubject());
+            args.add(m.getContent());
+            args.add(m.getReceivedAt() != null ? Timestamp.valueOf(m.getReceivedAt()) : null);
+            args.add(m.getIntent() != null ? m.getIntent().name() : null);
+            args.add(m.getPriority() != null ? m.getPriority().name() : null);
+            args.add(m.isProcessed());
+            args.add(m.getGmailId());
+            args.add(m.getTriageHeaders());
+        }
+
+        Map<String, Long> insertedIds = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                insertedIds.put(rs.getString("gmail_id"), rs.getLong("id")), args.toArray());
+
+        List<Message> inserted = new ArrayList<>(insertedIds.size());
+        for (Message m : messages) {
+            Long id = insertedIds.get(m.getGmailId());
+            if (id != null) {
+                m.setId(id);
+                inserted.add(m);
+            }
+        }
+        return inserted;
+    }
+}
@@ -1,18 +1,71 @@
 package com.example.dailyfix.repository;
 
+import com.example.dailyfix.dto.response.TaskDetail;
+import com.example.dailyfix.dto.response.TaskSummary;
 import com.example.dailyfix.enums.TaskStatus;
 import com.example.dailyfix.model.Task;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByStatus(TaskStatus status);
-    List<Task> findByAssignedToEmail(String email);
-    List<Task> findBySourceMessageIdAndAssignedToEmail(Long messageId, String email);
+
+    // Reply flow needs the original sender's address
+    @EntityGraph(attributePaths = "sourceMessage")
+    Optional<Task> findWithSourceMessageById(Long id);
+
+    // Status changes notify the assignee
+    @EntityGraph(attributePaths = "assignedTo")
+    Optional<Task> findWithAssigneeById(Long id);
+
+    @Query("""
+            select new com.example.dailyfix.dto.response.TaskSummary(
+                   t.id, t.title, t.priority, t.status, t.createdAt, t.dueDate, t.sourceMessage.id)
+            from Task t
+            where t.assignedTo.email = :email
+              and (t.createdAt < :at or (t.createdAt = :at and t.id < :id))
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskSummary> findSummaryPage(@Param("email") String email,
+                                      @Param("at") LocalDateTime at,
+                                      @Param("id") long id,
+                                      Limit limit);
+
+    @Query("""
+            select new com.example.dailyfix.dto.response.TaskSummary(
+                   t.id, t.title, t.priority, t.status, t.createdAt, t.dueDate, t.sourceMessage.id)
+            from Task t
+            where t.createdAt < :at or (t.createdAt = :at and t.id < :id)
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskSummary> findAllSummaryPage(@Param("at") LocalDateTime at, @Param("id") long id, Limit limit);
+
+    @Query("""
+            select new com.example.dailyfix.dto.response.TaskSummary(
+                   t.id, t.title, t.priority, t.status, t.createdAt, t.dueDate, t.sourceMessage.id)
+            from Task t
+            where t.sourceMessage.id = :messageId and t.assignedTo.email = :email
+            order by t.createdAt desc, t.id desc
+            """)
+    List<TaskSummary> findSummariesBySourceMessage(@Param("messageId") Long messageId, @Param("email") String email);
+
+    @Query("""
+            select new com.example.dailyfix.dto.response.TaskDetail(
+                   t.id, t.title, t.description, t.priority, t.status, t.createdAt, t.dueDate, m.id, m.senderEmail)
+            from Task t left join t.sourceMessage m
+            where t.id = :id and t.assignedTo.email = :email
+            """)
+    Optional<TaskDetail> findDetail(@Param("id") Long id, @Param("email") String email);
+    List<Task> findByAssignedToEmailAndStatusOrderByCreatedAtDesc(String email, TaskStatus status, Limit limit);
 
 }
 
@@ -3,8 +3,15 @@ package com.example.dailyfix.repository;
 import com.example.dailyfix.enums.Role;
 import com.example.dailyfix.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +21,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
     User findByName(String name);
 
     Optional<User> findByEmail(String userEmail);
+
+    List<User> findByActiveTrueAndReauthRequiredFalse();
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.reauthRequired = :reauthRequired where u.email = :email")
+    void setReauthRequired(@Param("email") String email, @Param("reauthRequired") boolean reauthRequired);
+
+    /**
+     * Advances only the sync checkpoint columns, so a long-running sync never
+     * overwrites profile changes made to the same user in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.gmailHistoryId = :historyId, u.lastSyncedAt = :syncedAt where u.id = :id")
+    void updateSyncCheckpoint(@Param("id") Long id,
+                              @Param("historyId") BigInteger historyId,
+                              @Param("syncedAt") LocalDateTime syncedAt);
+
+    /**
+     * Users eligible for sync whose Gmail watch is missing or expires before the given time.
+     */
+    @Query("select u from User u where u.active = true and u.reauthRequired = false " +
+            "and (u.gmailWatchExpiresAt is null or u.gmailWatchExpiresAt < :renewBefore)")
+    List<User> findWatchesToRenew(@Param("renewBefore") LocalDateTime renewBefore);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.gmailWatchExpiresAt = :expiresAt where u.id = :id")
+    void updateWatchExpiry(@Param("id") Long id, @Param("expiresAt") LocalDateTime expiresAt);
 }
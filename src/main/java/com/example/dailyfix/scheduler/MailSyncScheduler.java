@@ -3,27 +3,187 @@ package com.example.dailyfix.scheduler;
 import com.example.dailyfix.model.User;
 import com.example.dailyfix.repository.UserRepository;
 import com.example.dailyfix.service.MessageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class MailSyncScheduler {
 
     private final MessageService messageService;
     private final UserRepository userRepository;
+    private final TriageWorker triageWorker;
+
+    // Virtual threads are cheap to park; the semaphore is what bounds concurrent syncs
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore syncPermits;
+
+    // Users whose previous sync is still running are skipped instead of queued twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Push path: mailboxes waiting out their debounce window, and ones notified again mid-sync
+    private final ScheduledExecutorService debouncer = Executors.newSingleThreadScheduledExecutor();
+    private final Set<String> debouncing = ConcurrentHashMap.newKeySet();
+    private final Set<String> followUps = ConcurrentHashMap.newKeySet();
+    private final long debounceMs;
+    private final Duration pushPollFallback;
+
+    private final Timer cycleTimer;
+    private final Timer userSyncTimer;
+    private volatile SyncCycleStats lastCycle;
+
+    /**
+     * Outcome of one scheduler cycle; duration is the wall time until its last user finished.
+     */
+    public record SyncCycleStats(LocalDateTime startedAt, Duration duration, int submitted, int skipped) {
+    }
 
-    public MailSyncScheduler(MessageService messageService, UserRepository userRepository) {
+    public MailSyncScheduler(MessageService messageService,
+                             UserRepository userRepository,
+                             TriageWorker triageWorker,
+                             MeterRegistry meterRegistry,
+                             @Value("${dailyfix.sync.max-concurrency:8}") int maxConcurrency,
+                             @Value("${dailyfix.gmail.push.debounce-ms:500}") long debounceMs,
+                             @Value("${dailyfix.gmail.push.poll-fallback-ms:1800000}") long pushPollFallbackMs) {
         this.messageService = messageService;
         this.userRepository = userRepository;
+        this.triageWorker = triageWorker;
+        this.debounceMs = debounceMs;
+        this.pushPollFallback = Duration.ofMillis(pushPollFallbackMs);
+        this.syncPermits = new Semaphore(Math.max(1, maxConcurrency));
+        this.cycleTimer = Timer.builder("dailyfix.sync.cycle")
+                .description("Wall time of one background sync cycle across all users")
+                .register(meterRegistry);
+        this.userSyncTimer = Timer.builder("dailyfix.sync.user")
+                .description("Time to sync a single mailbox")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("dailyfix.sync.in-flight", inFlight, Set::size);
     }
 
-    @Scheduled(fixedRate = 120000) // 120 seconds
+    @Scheduled(fixedRateString = "${dailyfix.sync.interval-ms:120000}",
+            initialDelayString = "${dailyfix.sync.initial-delay-ms:0}")
     public void runPeriodicSync() {
         System.out.println("--- Starting 2-Minute Background Intelligence Sync ---");
-        List<User> users = userRepository.findAll();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        List<User> users = userRepository.findByActiveTrueAndReauthRequiredFalse();
+        List<CompletableFuture<Void>> syncs = new ArrayList<>(users.size());
+        int skipped = 0;
+        int pushCovered = 0;
+        LocalDateTime now = LocalDateTime.now();
+
         for (User user : users) {
-            messageService.processWithToken(user.getEmail());
+            // Mailboxes with a live Gmail watch sync on notification; polling them is only a safety net
+            if (isPushCovered(user, now)) {
+                pushCovered++;
+                continue;
+            }
+            CompletableFuture<Void> sync = submit(user.getEmail());
+            if (sync == null) {
+                skipped++;
+            } else {
+                syncs.add(sync);
+            }
+        }
+
+        // Don't block the scheduler thread: the next tick starts on time and skips anyone still running
+        int submitted = syncs.size();
+        int skippedUsers = skipped;
+        int pushUsers = pushCovered;
+        CompletableFuture.allOf(syncs.toArray(CompletableFuture[]::new)).whenComplete((ignored, ex) -> {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            cycleTimer.record(elapsed);
+            lastCycle = new SyncCycleStats(startedAt, elapsed, submitted, skippedUsers);
+            System.out.println("Sync cycle finished in " + elapsed.toMillis() + " ms (" +
+                    submitted + " synced, " + skippedUsers + " skipped, " + pushUsers + " on push)");
+        });
+    }
+
+    /**
+     * Queues a sync for one mailbox, or returns null if that mailbox is already syncing.
+     */
+    public CompletableFuture<Void> submit(String email) {
+        if (!inFlight.add(email)) {
+            return null;
         }
+        try {
+            return CompletableFuture.runAsync(() -> syncUser(email), executor);
+        } catch (RuntimeException e) {
+            inFlight.remove(email);
+            throw e;
+        }
+    }
+
+    /**
+     * Push path: syncs the mailbox after a short debounce, so a burst of notifications costs one sync.
+     * A notification that arrives while the mailbox is syncing gets exactly one follow-up sync afterwards.
+     * New mail is triaged straight away rather than at the next triage poll.
+     */
+    public void requestSync(String email) {
+        if (!debouncing.add(email)) return;
+        debouncer.schedule(() -> {
+            debouncing.remove(email);
+            CompletableFuture<Void> sync = submit(email);
+            if (sync != null) {
+                sync.thenRun(triageWorker::wakeUp);
+                return;
+            }
+            followUps.add(email);
+            // The running sync may have finished before the follow-up was recorded
+            if (!inFlight.contains(email) && followUps.remove(email)) {
+                requestSync(email);
+            }
+        }, debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    public SyncCycleStats getLastCycle() {
+        return lastCycle;
+    }
+
+    private void syncUser(String email) {
+        try {
+            syncPermits.acquire();
+            try {
+                userSyncTimer.record(() -> messageService.processWithToken(email));
+            } finally {
+                syncPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.remove(email);
+            if (followUps.remove(email)) {
+                requestSync(email);
+            }
+        }
+    }
+
+    private boolean isPushCovered(User user, LocalDateTime now) {
+        return user.getGmailWatchExpiresAt() != null && user.getGmailWatchExpiresAt().isAfter(now)
+                && user.getLastSyncedAt() != null && user.getLastSyncedAt().isAfter(now.minus(pushPollFallback));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        debouncer.shutdownNow();
+        executor.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.example.dailyfix.scheduler;
+
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.repository.MessageRepository;
+import com.example.dailyfix.service.MessageService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the triage queue: messages ingested with processed=false are claimed here,
+ * classified and turned into tasks, independently of how fast Gmail ingest runs.
+ */
+@Component
+public class TriageWorker {
+
+    private final MessageRepository messageRepository;
+    private final MessageService messageService;
+    private final ExecutorService workers;
+
+    // Runs on-demand drains (see wakeUp) next to the scheduled poll; claims keep the two from overlapping
+    private final ExecutorService wakeUps = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+
+    private final int workerCount;
+    private final int claimSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+
+    public TriageWorker(MessageRepository messageRepository,
+                        MessageService messageService,
+                        @Value("${dailyfix.triage.workers:4}") int workerCount,
+                        @Value("${dailyfix.triage.claim-size:40}") int claimSize,
+                        @Value("${dailyfix.triage.lease-seconds:300}") long leaseSeconds,
+                        @Value("${dailyfix.triage.max-attempts:5}") int maxAttempts,
+                        @Value("${dailyfix.triage.backoff-base-seconds:30}") long backoffBaseSeconds) {
+        this.messageRepository = messageRepository;
+        this.messageService = messageService;
+        this.workerCount = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(this.workerCount);
+        this.claimSize = Math.max(1, claimSize);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(backoffBaseSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${dailyfix.triage.poll-interval-ms:5000}",
+            initialDelayString = "${dailyfix.triage.initial-delay-ms:0}")
+    public void drainQueue() throws InterruptedException {
+        List<Long> claimed;
+        do {
+            claimed = messageRepository.claimForTriage(claimSize, lease);
+            if (claimed.isEmpty()) return;
+
+            // Each worker takes a slice; PriorityService sends each slice as batched Gemini requests
+            List<Message> messages = messageRepository.findWithUserByIdIn(claimed);
+            int sliceSize = Math.max(1, (messages.size() + workerCount - 1) / workerCount);
+            List<Callable<Void>> jobs = new ArrayList<>();
+            for (int from = 0; from < messages.size(); from += sliceSize) {
+                List<Message> slice = messages.subList(from, Math.min(from + sliceSize, messages.size()));
+                jobs.add(() -> {
+                    triage(slice);
+                    return null;
+                });
+            }
+            workers.invokeAll(jobs);
+        } while (claimed.size() == claimSize);
+    }
+
+    /**
+     * Drains the queue now instead of at the next poll; used when push-triggered syncs ingest new mail.
+     * Calls made while a drain is already queued are folded into it.
+     */
+    public void wakeUp() {
+        if (!wakeUpQueued.compareAndSet(false, true)) return;
+        wakeUps.execute(() -> {
+            wakeUpQueued.set(false);
+            try {
+                drainQueue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.err.println("On-demand triage drain failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void triage(List<Message> slice) {
+        Map<Long, Exception> failures;
+        try {
+            failures = messageService.processMessages(slice);
+        } catch (Exception e) {
+            slice.forEach(message -> scheduleRetry(message, e));
+            return;
+        }
+        for (Message message : slice) {
+            Exception failure = failures.get(message.getId());
+            if (failure != null) {
+                scheduleRetry(message, failure);
+            }
+        }
+    }
+
+    private void scheduleRetry(Message message, Exception e) {
+        int attempts = message.getTriageAttempts();
+        if (attempts >= maxAttempts) {
+            System.err.println("Giving up on triage for message " + message.getId() + " after " + attempts + " attempts: " + e.getMessage());
+            messageRepository.abandonTriage(message.getId(), Priority.NEEDS_REVIEW);
+            return;
+        }
+
+        // Exponential backoff: base, 2x base, 4x base, ...
+        Duration delay = baseBackoff.multipliedBy(1L << Math.clamp(attempts - 1, 0, 10));
+        System.err.println("Triage failed for message " + message.getId() + ", retrying in " + delay.toSeconds() + "s: " + e.getMessage());
+        messageRepository.scheduleTriageRetry(message.getId(), LocalDateTime.now().plus(delay));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUps.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -1,11 +1,27 @@
 package com.example.dailyfix.service;
 
+import com.example.dailyfix.aop.Traced;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 @Service
 public class AIService {
@@ -15,8 +31,31 @@ public class AIService {
     @Value("${gemini.api.url}")
     private String apiUrl;
 
+    // Canned answers callGemini returns instead of a real summary
+    private static final String NO_INSIGHTS = "Intelligence gathering... No insights found.";
+    private static final String NO_UPDATES = "No situational updates available.";
+    private static final String OFFLINE = "Intelligence offline. Manual review required.";
+
     private final RestClient restClient = RestClient.builder().build();
+    private final GeminiRateLimiter rateLimiter;
+
+    // Streaming is fully asynchronous: no thread waits on Gemini between chunks
+    private final HttpClient streamClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    // Waiting for quota may take a while; park a virtual thread rather than the caller
+    private final ExecutorService streamStarter = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AIService(GeminiRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * True when the text is one of the placeholders returned on a failed or empty Gemini call.
+     */
+    public static boolean isFallback(String text) {
+        return NO_INSIGHTS.equals(text) || NO_UPDATES.equals(text) || OFFLINE.equals(text);
+    }
 
+    @Traced
     public String summarizeEmails(String rawContent) {
         String prompt = "Review these separate email threads from the last 72 hours. " +
                 "Provide a ONE-LINE situational report (max 20 words) that identifies " +
@@ -26,6 +65,7 @@ public class AIService {
         return callGemini(prompt);
     }
 
+    @Traced
     public String summarizeTasks(String taskContent) {
         String prompt = "Review these active tasks. Provide a ONE-LINE executive summary " +
                 "(max 15 words) describing the user's current primary work focus. " +
@@ -41,6 +81,8 @@ public class AIService {
                     ))
             );
 
+            rateLimiter.acquire();
+
             Map<String, Object> response = restClient.post()
                     .uri(apiUrl + "?key=" + apiKey) // Ensure apiUrl does NOT have a ? already
                     .contentType(MediaType.APPLICATION_JSON)
@@ -48,15 +90,20 @@ public class AIService {
                     .retrieve()
                     .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), (request, resp) -> {
                         System.out.println("Gemini API Error: " + resp.getStatusCode());
+                        if (resp.getStatusCode().value() == 429) {
+                            rateLimiter.onThrottled(GeminiRateLimiter.parseRetryAfter(
+                                    resp.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)));
+                        }
                     })
                     .body(Map.class);
 
             if (response == null || !response.containsKey("candidates")) {
-                return "Intelligence gathering... No insights found.";
+                return NO_INSIGHTS;
             }
 
             List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-            if (candidates.isEmpty()) return "No situational updates available.";
+            rateLimiter.onSuccess();
+            if (candidates.isEmpty()) return NO_UPDATES;
 
             Map<String, Object> firstCandidate = candidates.get(0);
             Map<String, Object> content = (Map<String, Object>) firstCandidate.get("content");
@@ -64,19 +111,166 @@ public class AIService {
 
             return parts.get(0).get("text").toString().trim();
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OFFLINE;
         } catch (Exception e) {
             System.err.println("Gemini Integration Failed: " + e.getMessage());
             e.printStackTrace();
-            return "Intelligence offline. Manual review required.";
+            return OFFLINE;
         }
     }
 
+    @Traced
     public String generateDraft(String context) {
-        String prompt = "Review the following task/email context and write a professional " +
+        // Uses your existing callGemini logic
+        return callGemini(draftPrompt(context));
+    }
+
+    private static String draftPrompt(String context) {
+        return "Review the following task/email context and write a professional " +
                 "reply message (max 3 sentences). Do not use placeholders like [Name]. " +
                 "Context: " + context;
+    }
 
-        // Uses your existing callGemini logic
-        return callGemini(prompt);
+    /**
+     * Streaming form of generateDraft: each text chunk is passed to onChunk as Gemini produces it, and the
+     * returned future completes when the answer is finished. Cancelling the future (e.g. because the client
+     * disconnected) aborts the Gemini request, or skips it entirely if it is still waiting for quota.
+     * An exception thrown by onChunk cancels the stream the same way.
+     */
+    public CompletableFuture<Void> streamDraft(String context, Consumer<String> onChunk) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        streamStarter.execute(() -> startStream(draftPrompt(context), onChunk, result));
+        return result;
+    }
+
+    private void startStream(String prompt, Consumer<String> onChunk, CompletableFuture<Void> result) {
+        // 1. Same shared quota as every other Gemini call
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        if (result.isDone()) {
+            return; // abandoned while waiting for quota
+        }
+
+        // 2. streamGenerateContent with alt=sse answers with one "data: {...}" line per chunk
+        String body = new JSONObject().put("contents", new JSONArray().put(new JSONObject()
+                .put("parts", new JSONArray().put(new JSONObject().put("text", prompt))))).toString();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        apiUrl.replace(":generateContent", ":streamGenerateContent") + "?alt=sse&key=" + apiKey))
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        ChunkSubscriber chunks = new ChunkSubscriber(onChunk, result);
+        CompletableFuture<HttpResponse<Void>> exchange = streamClient.sendAsync(request, info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(chunks)
+                : HttpResponse.BodySubscribers.replacing(null));
+
+        // 3. Cancellation from the caller tears down the exchange, before or after the headers arrived
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                chunks.cancel();
+                exchange.cancel(true);
+            }
+        });
+
+        exchange.whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (response.statusCode() == 429) {
+                rateLimiter.onThrottled(GeminiRateLimiter.parseRetryAfter(response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null)));
+                result.completeExceptionally(new IllegalStateException("Gemini API Error: 429"));
+            } else if (response.statusCode() != 200) {
+                result.completeExceptionally(new IllegalStateException("Gemini API Error: " + response.statusCode()));
+            } else {
+                rateLimiter.onSuccess();
+                result.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Turns SSE lines into text chunks. Runs on the HTTP client's threads, one line at a time.
+     */
+    private static final class ChunkSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onChunk;
+        private final CompletableFuture<Void> result;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        ChunkSubscriber(Consumer<String> onChunk, CompletableFuture<Void> result) {
+            this.onChunk = onChunk;
+            this.result = result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (cancelled || !line.startsWith("data:")) return;
+            try {
+                String text = chunkText(line.substring("data:".length()).trim());
+                if (!text.isEmpty()) {
+                    onChunk.accept(text);
+                }
+            } catch (RuntimeException e) {
+                cancel();
+                result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // The exchange future completes the result once the response is finished
+        }
+
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private static String chunkText(String json) {
+            JSONArray candidates = new JSONObject(json).optJSONArray("candidates");
+            if (candidates == null || candidates.isEmpty()) return "";
+
+            JSONObject content = candidates.getJSONObject(0).optJSONObject("content");
+            JSONArray parts = content == null ? null : content.optJSONArray("parts");
+            if (parts == null) return "";
+
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < parts.length(); i++) {
+                text.append(parts.getJSONObject(i).optString("text"));
+            }
+            return text.toString();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamStarter.shutdownNow();
+        streamClient.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,6 @@ import com.example.dailyfix.enums.ActionType;
 import com.example.dailyfix.model.ActivityLog;
 import com.example.dailyfix.model.Task;
 import com.example.dailyfix.model.User;
-import com.example.dailyfix.repository.ActivityLogRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -12,21 +11,23 @@ import java.time.LocalDateTime;
 @Service
 public class ActivityLogService {
 
-    private final ActivityLogRepository activityLogRepository;
+    private final AuditWriter auditWriter;
 
-    public ActivityLogService(ActivityLogRepository activityLogRepository) {
-        this.activityLogRepository = activityLogRepository;
+    public ActivityLogService(AuditWriter auditWriter) {
+        this.auditWriter = auditWriter;
     }
 
     public void logActivity(Task task, User user, ActionType action, String remarks) {
+        auditWriter.append(buildLog(task, user, action, remarks));
+    }
 
+    private ActivityLog buildLog(Task task, User user, ActionType action, String remarks) {
         ActivityLog log = new ActivityLog();
         log.setTask(task);
         log.setPerformedBy(user);
         log.setAction(action);
         log.setPerformedAt(LocalDateTime.now());
         log.setRemarks(remarks);
-
-        activityLogRepository.save(log);
+        return log;
     }
 }
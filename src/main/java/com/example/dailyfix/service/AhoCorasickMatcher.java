@@ -0,0 +1,94 @@
+package com.example.dailyfix.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Multi-pattern substring matcher. All patterns are compiled into one automaton,
+ * so a scan costs O(text length + matches) however many patterns there are.
+ * Matching is exact on chars; callers lower-case both patterns and text.
+ */
+public final class AhoCorasickMatcher {
+
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param patternIndex position of the pattern in the constructor list
+         * @param end          index just past the last matched char
+         */
+        void onMatch(int patternIndex, int end);
+    }
+
+    private static final class Node {
+        final Map<Character, Node> next = new HashMap<>();
+        Node fail;
+        int[] outputs = new int[0];
+    }
+
+    private final Node root = new Node();
+
+    public AhoCorasickMatcher(List<String> patterns) {
+        for (int i = 0; i < patterns.size(); i++) {
+            Node node = root;
+            for (char c : patterns.get(i).toCharArray()) {
+                node = node.next.computeIfAbsent(c, k -> new Node());
+            }
+            node.outputs = append(node.outputs, i);
+        }
+        buildFailureLinks();
+    }
+
+    public void forEachMatch(CharSequence text, MatchHandler handler) {
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, root);
+            for (int patternIndex : node.outputs) {
+                handler.onMatch(patternIndex, i + 1);
+            }
+        }
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+
+        // Breadth-first so every node's failure target is finished before its children need it
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                char c = edge.getKey();
+                Node child = edge.getValue();
+
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(c);
+                child.fail = (target != null && target != child) ? target : root;
+
+                // Inherit matches that end here via a shorter suffix
+                for (int output : child.fail.outputs) {
+                    child.outputs = append(child.outputs, output);
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] copy = Arrays.copyOf(values, values.length + 1);
+        copy[values.length] = value;
+        return copy;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.model.ActivityLog;
+import com.example.dailyfix.model.MessageInteraction;
+import com.example.dailyfix.repository.ActivityLogRepository;
+import com.example.dailyfix.repository.MessageInteractionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Write-behind sink for the append-only audit tables (ActivityLog, MessageInteraction).
+ * ASYNC entries are queued once the caller's transaction commits and flushed in JDBC batches
+ * on a timer; SYNC entries are saved in the caller's transaction. A full queue degrades to SYNC
+ * rather than dropping events. When a batch fails, its rows are retried one at a time, so a bad row
+ * only costs itself and rows hit by a transient database error go back on the queue.
+ */
+@Component
+public class AuditWriter {
+
+    public enum Durability {
+        // Written in the caller's transaction; the action and its audit row commit together
+        SYNC,
+        // Queued after commit and batch-inserted shortly after; lost if the process dies first,
+        // or if the row still can't be written after MAX_ATTEMPTS flushes
+        ASYNC
+    }
+
+    private final ActivityLogRepository activityLogRepository;
+    private final MessageInteractionRepository interactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    static final int MAX_ATTEMPTS = 5;
+
+    private record Pending(Object entry, int attempts) {
+    }
+
+    private final BlockingQueue<Pending> queue;
+    private final Durability defaultDurability;
+    private final int batchSize;
+
+    private final Counter flushed;
+    private final Counter failed;
+
+    public AuditWriter(ActivityLogRepository activityLogRepository,
+                       MessageInteractionRepository interactionRepository,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${dailyfix.audit.durability:ASYNC}") Durability defaultDurability,
+                       @Value("${dailyfix.audit.queue-capacity:10000}") int queueCapacity,
+                       @Value("${dailyfix.audit.batch-size:50}") int batchSize) {
+        this.activityLogRepository = activityLogRepository;
+        this.interactionRepository = interactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.defaultDurability = defaultDurability;
+        this.batchSize = batchSize;
+
+        meterRegistry.gauge("audit.queue.size", queue, BlockingQueue::size);
+        this.flushed = meterRegistry.counter("audit.flushed");
+        this.failed = meterRegistry.counter("audit.failed");
+    }
+
+    public void append(ActivityLog entry) {
+        enqueue(entry, defaultDurability);
+    }
+
+    public void append(MessageInteraction entry) {
+        append(entry, defaultDurability);
+    }
+
+    /**
+     * Explicit durability for entries something else reads back, like the COMPLETED/DISMISSED
+     * interactions behind the triage feedback loop.
+     */
+    public void append(MessageInteraction entry, Durability durability) {
+        enqueue(entry, durability);
+    }
+
+    private void enqueue(Object entry, Durability durability) {
+        if (durability == Durability.SYNC) {
+            save(entry);
+            return;
+        }
+
+        // Only audit actions that actually happened: wait for the caller's commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(entry);
+                }
+            });
+        } else {
+            offer(entry);
+        }
+    }
+
+    private void offer(Object entry) {
+        if (!queue.offer(new Pending(entry, 0))) {
+            // Backpressure: the caller pays for its own insert instead of losing the event
+            transactionTemplate.executeWithoutResult(status -> save(entry));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dailyfix.audit.flush-interval-ms:500}")
+    public void flush() {
+        // Only what is queued now: rows put back by a failed write wait for the next flush
+        int remaining = queue.size();
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (remaining > 0 && queue.drainTo(batch, Math.min(batchSize, remaining)) > 0) {
+            remaining -= batch.size();
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        try {
+            // Sequence ids (allocationSize 50) plus hibernate.jdbc.batch_size turn these into batched inserts
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(pending -> save(pending.entry())));
+            flushed.increment(batch.size());
+        } catch (RuntimeException e) {
+            System.err.println("Audit flush failed, retrying " + batch.size() + " entries one by one: " + e.getMessage());
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    private void writeOne(Pending pending) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(pending.entry()));
+            flushed.increment();
+        } catch (RuntimeException e) {
+            int attempts = pending.attempts() + 1;
+            if (attempts < MAX_ATTEMPTS && queue.offer(new Pending(pending.entry(), attempts))) {
+                return;
+            }
+            failed.increment();
+            System.err.println("Audit entry dropped after " + attempts + " attempts: " + e.getMessage());
+        }
+    }
+
+    private void save(Object entry) {
+        // A rolled-back flush leaves the sequence id it assigned on the entity; start over as a new row
+        if (entry instanceof ActivityLog log) {
+            log.setId(null);
+            activityLogRepository.save(log);
+        } else if (entry instanceof MessageInteraction interaction) {
+            interaction.setId(null);
+            interactionRepository.save(interaction);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.dto.request.GeminiAnalysis;
+import com.example.dailyfix.enums.MessageIntent;
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.enums.TrustLevel;
+import com.example.dailyfix.model.ClassificationCacheEntry;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.repository.ClassificationCacheEntryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cross-user cache of Gemini verdicts keyed by a hash of what the model actually sees.
+ * Identical newsletters, alerts and CI mails landing in many inboxes are classified once.
+ * Caffeine bounds the in-memory tier (W-TinyLFU eviction); the optional table tier survives restarts.
+ */
+@Component
+public class ClassificationCache {
+
+    private final Cache<String, GeminiAnalysis> cache;
+    private final ClassificationCacheEntryRepository entryRepository;
+    private final Duration ttl;
+    private final boolean persistent;
+
+    public ClassificationCache(ClassificationCacheEntryRepository entryRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${dailyfix.triage.cache.max-size:50000}") long maxSize,
+                               @Value("${dailyfix.triage.cache.ttl-hours:24}") long ttlHours,
+                               @Value("${dailyfix.triage.cache.persistent:false}") boolean persistent) {
+        this.entryRepository = entryRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.persistent = persistent;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under cache=triage.classification
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "triage.classification");
+    }
+
+    /**
+     * Looks up several keys at once; with persistence on, memory misses cost a single table query.
+     */
+    public Map<String, GeminiAnalysis> getAll(Collection<String> keys) {
+        Map<String, GeminiAnalysis> found = new HashMap<>(cache.getAllPresent(keys));
+        if (!persistent || found.size() == keys.size()) {
+            return found;
+        }
+
+        List<String> missing = keys.stream().filter(key -> !found.containsKey(key)).toList();
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        for (ClassificationCacheEntry entry : entryRepository.findAllById(missing)) {
+            if (entry.getCreatedAt() == null || entry.getCreatedAt().isBefore(cutoff)) continue;
+            GeminiAnalysis analysis = new GeminiAnalysis(entry.getPriority().name(),
+                    entry.getIntent() != null ? entry.getIntent().name() : null, "Cached classification");
+            cache.put(entry.getContentHash(), analysis);
+            found.put(entry.getContentHash(), analysis);
+        }
+        return found;
+    }
+
+    public void put(String key, GeminiAnalysis analysis) {
+        cache.put(key, analysis);
+        if (persistent) {
+            entryRepository.save(new ClassificationCacheEntry(key,
+                    Priority.valueOf(analysis.priority()),
+                    analysis.intent() != null ? MessageIntent.valueOf(analysis.intent()) : null,
+                    LocalDateTime.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dailyfix.triage.cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (persistent) {
+            entryRepository.deleteByCreatedAtBefore(LocalDateTime.now().minus(ttl));
+        }
+    }
+
+    /**
+     * Cache key for one message: only the inputs that reach the prompt, normalized for case and whitespace.
+     */
+    public static String keyFor(Message message, TrustLevel trust) {
+        String normalized = normalize(message.getSenderDomain()) + '\u0000'
+                + normalize(message.getSubject()) + '\u0000'
+                + normalize(message.getContent()) + '\u0000'
+                + trust.name();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) return "";
+        return value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
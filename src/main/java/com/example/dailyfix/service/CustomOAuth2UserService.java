@@ -30,7 +30,7 @@ public class CustomOAuth2UserService extends OidcUserService { // Changed to Oid
 
         // 2. Your existing DB saving logic
         if (email != null) {
-            userRepository.findByEmail(email).orElseGet(() -> {
+            User user = userRepository.findByEmail(email).orElseGet(() -> {
                 User newUser = new User();
                 newUser.setEmail(email);
                 newUser.setName(name != null ? name : email);
@@ -40,6 +40,11 @@ public class CustomOAuth2UserService extends OidcUserService { // Changed to Oid
                 newUser.setPassword("OIDC_LOGIN_" + UUID.randomUUID());
                 return userRepository.save(newUser);
             });
+
+            // A fresh login brings a new refresh token, so background sync can resume
+            if (user.isReauthRequired()) {
+                userRepository.setReauthRequired(email, false);
+            }
         }
 
         // 3. THE CRITICAL CHANGE: Return a user that uses "email" as the Principal Name
@@ -0,0 +1,238 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.aop.Traced;
+import com.example.dailyfix.event.InboxChangedEvent;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.model.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * AI summaries for the dashboard, cached per user and keyed by a fingerprint of the rows they were built from.
+ * A request whose fingerprint still matches is answered from memory; a stale entry is served while a
+ * background regeneration runs, and concurrent requests for the same data share one Gemini round trip.
+ * Inbox changes rebuild eagerly only for users who opened the dashboard recently, at most once per debounce
+ * window; everyone else is refreshed by the stale-while-revalidate path on their next visit.
+ */
+@Service
+public class DashboardSummaryService {
+
+    public record DashboardSummary(String urgentSummary, String normalSummary) {
+    }
+
+    // About the length of Gmail's snippet, which is what the digest was sized for
+    static final int DIGEST_CONTENT_CHARS = 200;
+
+    private record CachedSummary(String fingerprint, DashboardSummary summary) {
+    }
+
+    private final MessageService messageService;
+    private final TaskService taskService;
+    private final AIService aiService;
+
+    private final Cache<String, CachedSummary> cache;
+    private final Map<String, CompletableFuture<DashboardSummary>> inFlight = new ConcurrentHashMap<>();
+    // Regenerations mostly wait on Gemini, so a virtual thread each
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Eager rebuilds: users who viewed the dashboard within the window, and those with a rebuild already scheduled
+    private final Cache<String, Boolean> recentViewers;
+    private final Set<String> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService debouncer = Executors.newSingleThreadScheduledExecutor();
+    private final long refreshDebounceMs;
+
+    // Rows per list fed to the AI summaries; the dashboard counts cover the full window
+    @Value("${dailyfix.dashboard.summary-limit:50}")
+    private int summaryLimit;
+
+    public DashboardSummaryService(MessageService messageService,
+                                   TaskService taskService,
+                                   AIService aiService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${dailyfix.dashboard.summary-cache.max-size:10000}") long maxSize,
+                                   @Value("${dailyfix.dashboard.summary-cache.ttl-hours:6}") long ttlHours,
+                                   @Value("${dailyfix.dashboard.eager-refresh.viewer-window-minutes:30}") long viewerWindowMinutes,
+                                   @Value("${dailyfix.dashboard.eager-refresh.debounce-ms:10000}") long refreshDebounceMs) {
+        this.messageService = messageService;
+        this.taskService = taskService;
+        this.aiService = aiService;
+        this.refreshDebounceMs = refreshDebounceMs;
+        this.recentViewers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(viewerWindowMinutes))
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dashboard.summary");
+    }
+
+    @Traced
+    public DashboardSummary getSummary(String email, LocalDateTime since) {
+        recentViewers.put(email, Boolean.TRUE);
+        List<Message> recentMessages = messageService.getRecentMessages(email, since, summaryLimit);
+        List<Task> openTasks = taskService.getOpenTasks(email, summaryLimit);
+        String fingerprint = fingerprint(recentMessages, openTasks);
+
+        CachedSummary cached = cache.getIfPresent(email);
+        if (cached != null && cached.fingerprint().equals(fingerprint)) {
+            return cached.summary();
+        }
+
+        CompletableFuture<DashboardSummary> pending = regenerate(email, fingerprint, recentMessages, openTasks);
+        if (cached != null) {
+            // Serve the previous summary rather than block the dashboard on Gemini
+            return cached.summary();
+        }
+        return pending.join();
+    }
+
+    /**
+     * Schedules a rebuild once the change that triggered it has committed. A sync burst fires one event per
+     * triaged message; they fold into a single rebuild per debounce window, and only for recent viewers.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInboxChanged(InboxChangedEvent event) {
+        String email = event.userEmail();
+        if (recentViewers.getIfPresent(email) == null || !pendingRefresh.add(email)) return;
+
+        debouncer.schedule(() -> executor.execute(() -> {
+            pendingRefresh.remove(email);
+            try {
+                refresh(email);
+            } catch (RuntimeException e) {
+                System.err.println("Dashboard summary refresh failed for " + email + ": " + e.getMessage());
+            }
+        }), refreshDebounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(String email) {
+        // Same three-day window the dashboard shows
+        LocalDateTime since = LocalDateTime.now().minusDays(3);
+        List<Message> recentMessages = messageService.getRecentMessages(email, since, summaryLimit);
+        List<Task> openTasks = taskService.getOpenTasks(email, summaryLimit);
+        String fingerprint = fingerprint(recentMessages, openTasks);
+
+        CachedSummary cached = cache.getIfPresent(email);
+        if (cached == null || !cached.fingerprint().equals(fingerprint)) {
+            regenerate(email, fingerprint, recentMessages, openTasks);
+        }
+    }
+
+    /**
+     * Single-flight per (user, fingerprint): whoever arrives first computes, everyone else joins its future.
+     */
+    private CompletableFuture<DashboardSummary> regenerate(String email, String fingerprint,
+                                                           List<Message> recentMessages, List<Task> openTasks) {
+        String key = email + ":" + fingerprint;
+        CompletableFuture<DashboardSummary> mine = new CompletableFuture<>();
+        CompletableFuture<DashboardSummary> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                DashboardSummary summary = summarize(recentMessages, openTasks);
+                // Don't pin a Gemini outage message until the data next changes
+                if (!AIService.isFallback(summary.urgentSummary()) && !AIService.isFallback(summary.normalSummary())) {
+                    cache.put(email, new CachedSummary(fingerprint, summary));
+                }
+                mine.complete(summary);
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }, executor);
+        return mine;
+    }
+
+    private DashboardSummary summarize(List<Message> recentMessages, List<Task> openTasks) {
+        String mailData = mailDigest(recentMessages);
+        String taskData = taskDigest(openTasks);
+
+        String urgentSummary = (recentMessages.isEmpty())
+                ? "Recent correspondence is clear."
+                : aiService.summarizeEmails(mailData);
+
+        String normalSummary = (openTasks.isEmpty())
+                ? "No active tasks currently pending."
+                : aiService.summarizeTasks(taskData);
+
+        return new DashboardSummary(urgentSummary, normalSummary);
+    }
+
+    /**
+     * Prompt input for the mail summary: one "From | Subject | Content" block per message, with content
+     * cut to a snippet's length; the full body is for triage, and would multiply the prompt tenfold.
+     */
+    public static String mailDigest(List<Message> recentMessages) {
+        return recentMessages.stream()
+                .map(m -> String.format("From: %s | Subject: %s | Content: %s",
+                        m.getSenderEmail() != null ? m.getSenderEmail() : "Unknown",
+                        m.getSubject(),
+                        truncate(m.getContent(), DIGEST_CONTENT_CHARS)))
+                .collect(Collectors.joining("\n---\n"));
+    }
+
+    private static String truncate(String value, int maxChars) {
+        return value == null || value.length() <= maxChars ? value : value.substring(0, maxChars);
+    }
+
+    public static String taskDigest(List<Task> openTasks) {
+        return openTasks.stream()
+                // Task descriptions are copied from the message body, so they get the same cap
+                .map(t -> t.getTitle() + " - " + truncate(t.getDescription(), DIGEST_CONTENT_CHARS))
+                .collect(Collectors.joining(" | "));
+    }
+
+    /**
+     * Changes whenever a message enters or leaves the window, is re-prioritized, or a task changes state.
+     */
+    public static String fingerprint(List<Message> recentMessages, List<Task> openTasks) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Message m : recentMessages) {
+                digest.update(("m" + m.getId() + ":" + m.getPriority() + ";").getBytes(StandardCharsets.UTF_8));
+            }
+            for (Task t : openTasks) {
+                digest.update(("t" + t.getId() + ":" + t.getStatus() + ";").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        debouncer.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.dailyfix.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on AlertWhitelist and SenderProfile that keeps DomainPolicyIndex current.
+ * Hibernate obtains it from the Spring context; the index is resolved lazily because entity
+ * listeners are created while the EntityManagerFactory that the index depends on is still starting.
+ */
+@Component
+public class DomainPolicyChangeListener {
+
+    private final ObjectProvider<DomainPolicyIndex> domainPolicyIndex;
+
+    public DomainPolicyChangeListener(ObjectProvider<DomainPolicyIndex> domainPolicyIndex) {
+        this.domainPolicyIndex = domainPolicyIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onPolicyChange(Object entity) {
+        domainPolicyIndex.getObject().reloadAfterCommit();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.enums.TrustLevel;
+import com.example.dailyfix.model.AlertWhitelist;
+import com.example.dailyfix.model.SenderProfile;
+import com.example.dailyfix.repository.AlertWhitelistRepository;
+import com.example.dailyfix.repository.SenderProfileRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory view of AlertWhitelist and SenderProfile, indexed as a reverse-label trie
+ * (com -> github -> mail). A lookup walks the sender domain from its TLD down and keeps
+ * the deepest entry seen, so a github.com row also covers mail.github.com unless a more
+ * specific row overrides it. Triage reads never touch the database.
+ */
+@Component
+public class DomainPolicyIndex {
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        Boolean alertEnabled;
+        TrustLevel trustLevel;
+    }
+
+    private final AlertWhitelistRepository alertWhitelistRepository;
+    private final SenderProfileRepository senderProfileRepository;
+
+    // Rebuilt off to the side and swapped in whole, so readers never see a half-built trie
+    private volatile Node root = new Node();
+
+    public DomainPolicyIndex(AlertWhitelistRepository alertWhitelistRepository,
+                             SenderProfileRepository senderProfileRepository) {
+        this.alertWhitelistRepository = alertWhitelistRepository;
+        this.senderProfileRepository = senderProfileRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${dailyfix.policy.refresh-interval-ms:300000}")
+    public void reload() {
+        Node fresh = new Node();
+        for (AlertWhitelist entry : alertWhitelistRepository.findAll()) {
+            nodeFor(fresh, entry.getSenderDomain()).alertEnabled = entry.isAlertEnabled();
+        }
+        for (SenderProfile profile : senderProfileRepository.findAll()) {
+            nodeFor(fresh, profile.getSenderDomain()).trustLevel = profile.getTrustLevel();
+        }
+        root = fresh;
+    }
+
+    /**
+     * Called from entity listeners; waits for the surrounding transaction so the reload sees the change.
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    public boolean isAlertEnabled(String domain) {
+        Boolean enabled = null;
+        for (Node node : path(domain)) {
+            if (node.alertEnabled != null) enabled = node.alertEnabled;
+        }
+        return Boolean.TRUE.equals(enabled);
+    }
+
+    public Optional<TrustLevel> trustLevelOf(String domain) {
+        TrustLevel trust = null;
+        for (Node node : path(domain)) {
+            if (node.trustLevel != null) trust = node.trustLevel;
+        }
+        return Optional.ofNullable(trust);
+    }
+
+    /**
+     * Nodes visited from the TLD down to the most specific label present in the trie.
+     */
+    private List<Node> path(String domain) {
+        List<Node> visited = new ArrayList<>(4);
+        if (domain == null || domain.isBlank()) return visited;
+
+        String[] labels = domain.trim().toLowerCase(Locale.ROOT).split("\\.");
+        Node node = root;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            node = node.children.get(labels[i]);
+            if (node == null) break;
+            visited.add(node);
+        }
+        return visited;
+    }
+
+    private static Node nodeFor(Node root, String domain) {
+        Node node = root;
+        if (domain == null) return node;
+
+        String[] labels = domain.trim().toLowerCase(Locale.ROOT).split("\\.");
+        for (int i = labels.length - 1; i >= 0; i--) {
+            node = node.children.computeIfAbsent(labels[i], label -> new Node());
+        }
+        return node;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.dailyfix.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide token bucket in front of every Gemini call.
+ * The refill rate adapts AIMD-style: it creeps up after each success and is cut
+ * multiplicatively on HTTP 429, so throughput settles at whatever quota Gemini grants.
+ */
+@Component
+public class GeminiRateLimiter {
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final double burst;
+
+    // Guarded by this
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    public GeminiRateLimiter(@Value("${gemini.rate-limit.initial-rps:0.5}") double initialRate,
+                             @Value("${gemini.rate-limit.min-rps:0.1}") double minRate,
+                             @Value("${gemini.rate-limit.max-rps:5}") double maxRate,
+                             @Value("${gemini.rate-limit.increase-step:0.05}") double increaseStep,
+                             @Value("${gemini.rate-limit.decrease-factor:0.5}") double decreaseFactor,
+                             @Value("${gemini.rate-limit.burst:5}") double burst,
+                             MeterRegistry meterRegistry) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.burst = Math.max(1, burst);
+        this.rate = Math.clamp(initialRate, minRate, maxRate);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+        meterRegistry.gauge("gemini.rate-limit.rps", this, GeminiRateLimiter::currentRate);
+    }
+
+    /**
+     * Blocks until a request may be sent.
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                if (now < pausedUntilNanos) {
+                    waitNanos = pausedUntilNanos - now;
+                } else if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                } else {
+                    waitNanos = (long) ((1 - tokens) / rate * 1_000_000_000L);
+                }
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized void onSuccess() {
+        refill(System.nanoTime());
+        rate = Math.min(maxRate, rate + increaseStep);
+    }
+
+    /**
+     * Called on HTTP 429. Halves the rate and, if Gemini sent Retry-After, holds every caller until then.
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        long now = System.nanoTime();
+        refill(now);
+        rate = Math.max(minRate, rate * decreaseFactor);
+        tokens = 0;
+        if (retryAfter.isPositive()) {
+            pausedUntilNanos = Math.max(pausedUntilNanos, now + retryAfter.toNanos());
+        }
+        System.err.println("Gemini throttled us, slowing to " + String.format("%.2f", rate) + " req/s");
+    }
+
+    public synchronized double currentRate() {
+        return rate;
+    }
+
+    /**
+     * Parses a Retry-After header given in seconds; a missing header, HTTP-date values and garbage yield
+     * Duration.ZERO, which onThrottled treats as "no extra pause" (it still halves the rate).
+     */
+    public static Duration parseRetryAfter(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) return Duration.ZERO;
+        try {
+            return Duration.ofSeconds(Long.parseLong(headerValue.trim()));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rate / 1_000_000_000L);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current Google access token for a user, served from memory until shortly before it expires.
+ * A background pass renews tokens that are about to expire so syncs never pay the refresh inline,
+ * and concurrent lookups for the same user share a single call to OAuth2AuthorizedClientManager.
+ */
+@Component
+public class GmailAccessTokenProvider {
+
+    private record CachedToken(String value, Instant expiresAt, Instant lastUsed) {
+    }
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+    private final UserRepository userRepository;
+    private final Duration refreshAhead;
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedToken>> inFlight = new ConcurrentHashMap<>();
+
+    // Tokens nobody has asked for in this long are left to expire instead of being renewed
+    private static final Duration IDLE_CUTOFF = Duration.ofHours(1);
+
+    public GmailAccessTokenProvider(OAuth2AuthorizedClientManager authorizedClientManager,
+                                    UserRepository userRepository,
+                                    @Value("${dailyfix.oauth.refresh-ahead-seconds:300}") long refreshAheadSeconds) {
+        this.authorizedClientManager = authorizedClientManager;
+        this.userRepository = userRepository;
+        this.refreshAhead = Duration.ofSeconds(refreshAheadSeconds);
+    }
+
+    /**
+     * Returns null when the user has no usable authorization and must log in again.
+     */
+    public String getAccessToken(String email) {
+        Instant now = Instant.now();
+        CachedToken cached = tokens.get(email);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            if (cached.lastUsed().isBefore(now.minusSeconds(60))) {
+                tokens.put(email, new CachedToken(cached.value(), cached.expiresAt(), now));
+            }
+            return cached.value();
+        }
+
+        CachedToken fresh = authorize(email);
+        return fresh != null ? fresh.value() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${dailyfix.oauth.refresh-check-interval-ms:60000}")
+    public void refreshExpiringTokens() {
+        Instant now = Instant.now();
+        Instant horizon = now.plus(refreshAhead);
+        tokens.forEach((email, token) -> {
+            if (token.lastUsed().isBefore(now.minus(IDLE_CUTOFF))) {
+                tokens.remove(email, token);
+            } else if (token.expiresAt().isBefore(horizon)) {
+                try {
+                    authorize(email);
+                } catch (RuntimeException e) {
+                    // Token endpoint or network trouble: the cached token stays until it expires, and
+                    // getAccessToken retries on demand; don't let one user end the pass for everyone else
+                    System.err.println("Background token refresh failed for " + email + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Single-flight: the first caller for an email talks to the manager, everyone else waits on its result.
+     */
+    private CachedToken authorize(String email) {
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        CompletableFuture<CachedToken> existing = inFlight.putIfAbsent(email, mine);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            CachedToken token = loadToken(email);
+            mine.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(email, mine);
+        }
+    }
+
+    private CachedToken loadToken(String email) {
+        OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest.withClientRegistrationId("google")
+                .principal(email)
+                .build();
+
+        OAuth2AuthorizedClient authorizedClient;
+        try {
+            // The manager refreshes here when the token is within the provider's clock skew (see OAuth2Config)
+            authorizedClient = authorizedClientManager.authorize(authorizeRequest);
+        } catch (OAuth2AuthorizationException e) {
+            if (!OAuth2ErrorCodes.INVALID_GRANT.equals(e.getError().getErrorCode())) throw e;
+            authorizedClient = null;
+        }
+
+        if (authorizedClient == null) {
+            // Revoked or never granted: stop the scheduler from retrying this user every cycle
+            tokens.remove(email);
+            userRepository.setReauthRequired(email, true);
+            System.err.println("Google authorization revoked for " + email + ". Sync paused until re-login.");
+            return null;
+        }
+
+        Instant expiresAt = authorizedClient.getAccessToken().getExpiresAt();
+        CachedToken token = new CachedToken(
+                authorizedClient.getAccessToken().getTokenValue(),
+                expiresAt != null ? expiresAt : Instant.now().plus(refreshAhead),
+                Instant.now());
+        tokens.put(email, token);
+        return token;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dailyfix.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.gmail.Gmail;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Hands out one lightweight Gmail client per user, all sharing the pooled transport from GmailConfig.
+ * The client's request initializer looks up the user's token on every request, so a cached
+ * client keeps working across token refreshes.
+ * {@code dailyfix.gmail.root-url} points every client at another host, e.g. the stand-in used by the load test.
+ */
+@Component
+public class GmailClientFactory {
+
+    private final HttpTransport transport;
+    private final GmailAccessTokenProvider tokenProvider;
+    private final String rootUrl;
+    private final Cache<String, Gmail> clients = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    public GmailClientFactory(HttpTransport gmailHttpTransport,
+                              GmailAccessTokenProvider tokenProvider,
+                              @Value("${dailyfix.gmail.root-url:}") String rootUrl) {
+        this.transport = gmailHttpTransport;
+        this.tokenProvider = tokenProvider;
+        this.rootUrl = rootUrl;
+    }
+
+    public Gmail forUser(String email) {
+        return clients.get(email, this::buildClient);
+    }
+
+    private Gmail buildClient(String email) {
+        Gmail.Builder builder = new Gmail.Builder(transport, GsonFactory.getDefaultInstance(), request -> {
+            String accessToken = tokenProvider.getAccessToken(email);
+            if (accessToken == null) {
+                throw new IllegalStateException("No Google authorization for " + email + ". User must re-login.");
+            }
+            request.getHeaders().setAuthorization("Bearer " + accessToken);
+        }).setApplicationName("DailyFix");
+
+        // Batch requests are sent to rootUrl + batchPath, so this redirects them too
+        if (!rootUrl.isBlank()) {
+            builder.setRootUrl(rootUrl);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.enums.SourceType;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.model.User;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Gmail API message to Message entity. Pure and stateless, so the ingest path can be benchmarked on its own.
+ */
+public final class GmailMessageMapper {
+
+    // Headers kept on the message for TriageRuleEngine's HEADER rules
+    private static final Set<String> TRIAGE_HEADERS =
+            Set.of("list-unsubscribe", "list-id", "precedence", "auto-submitted", "x-auto-response-suppress");
+    private static final int MAX_TRIAGE_HEADER_LENGTH = 200;
+
+    private GmailMessageMapper() {
+    }
+
+    /**
+     * Builds an unsaved, untriaged Message from a Gmail message fetched with format=full.
+     */
+    public static Message toEntity(com.google.api.services.gmail.model.Message gMsg, User user) {
+        Message message = new Message();
+        List<MessagePartHeader> headers = gMsg.getPayload().getHeaders();
+
+        // Extract "Subject" and "From" from headers
+        String subject = headers.stream()
+                .filter(h -> h.getName().equalsIgnoreCase("Subject"))
+                .map(MessagePartHeader::getValue).findFirst().orElse("No Subject");
+
+        String from = headers.stream()
+                .filter(h -> h.getName().equalsIgnoreCase("From"))
+                .map(MessagePartHeader::getValue).findFirst().orElse("Unknown");
+
+        message.setSubject(subject);
+        message.setSenderEmail(from);
+        message.setTriageHeaders(extractTriageHeaders(headers));
+
+        // Extract Domain for Whitelist checking
+        if (from != null && from.contains("@")) {
+            try {
+                String domain = from.substring(from.indexOf("@") + 1).split(">")[0].trim();
+                message.setSenderDomain(domain);
+            } catch (Exception e) {
+                message.setSenderDomain("unknown.com");
+            }
+        }
+
+        // Full body text for triage, bounded by MimeBodyExtractor; the ~200-character snippet when there is none
+        String body = MimeBodyExtractor.extract(gMsg.getPayload());
+        message.setContent(body != null ? body : gMsg.getSnippet());
+        message.setSourceType(SourceType.EMAIL);
+        message.setReceivedAt(LocalDateTime.now());
+        message.setProcessed(false);
+        message.setUser(user);
+
+        return message;
+    }
+
+    static String extractTriageHeaders(List<MessagePartHeader> headers) {
+        StringBuilder lines = new StringBuilder();
+        for (MessagePartHeader header : headers) {
+            String name = header.getName().toLowerCase(Locale.ROOT);
+            if (!TRIAGE_HEADERS.contains(name) || header.getValue() == null) continue;
+
+            String value = header.getValue();
+            if (value.length() > MAX_TRIAGE_HEADER_LENGTH) {
+                value = value.substring(0, MAX_TRIAGE_HEADER_LENGTH);
+            }
+            lines.append(name).append(": ").append(value.toLowerCase(Locale.ROOT)).append('\n');
+        }
+        return lines.isEmpty() ? null : lines.toString();
+    }
+}
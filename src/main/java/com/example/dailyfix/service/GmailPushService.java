@@ -0,0 +1,112 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.model.User;
+import com.example.dailyfix.repository.UserRepository;
+import com.example.dailyfix.scheduler.MailSyncScheduler;
+import com.google.api.services.gmail.model.WatchRequest;
+import com.google.api.services.gmail.model.WatchResponse;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Gmail push notifications: keeps a Gmail watch on every active inbox, publishing to a Pub/Sub topic whose
+ * push subscription posts to /api/gmail/push, and turns each notification into a sync of just that mailbox.
+ * Push is disabled unless both the topic and the verification token are configured.
+ */
+@Service
+public class GmailPushService {
+
+    private final UserRepository userRepository;
+    private final GmailClientFactory gmailClientFactory;
+    private final MailSyncScheduler mailSyncScheduler;
+    private final String topic;
+    private final byte[] verificationToken;
+
+    public GmailPushService(UserRepository userRepository,
+                            GmailClientFactory gmailClientFactory,
+                            MailSyncScheduler mailSyncScheduler,
+                            @Value("${dailyfix.gmail.push.topic:}") String topic,
+                            @Value("${dailyfix.gmail.push.verification-token:}") String verificationToken) {
+        this.userRepository = userRepository;
+        this.gmailClientFactory = gmailClientFactory;
+        this.mailSyncScheduler = mailSyncScheduler;
+        this.topic = topic;
+        this.verificationToken = verificationToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isEnabled() {
+        return !topic.isBlank() && verificationToken.length > 0;
+    }
+
+    /**
+     * Checks the token the push subscription was configured with, in constant time.
+     */
+    public boolean isAuthentic(String token) {
+        return isEnabled() && token != null
+                && MessageDigest.isEqual(verificationToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Handles one Pub/Sub delivery: {"message": {"data": base64({"emailAddress", "historyId"})}}.
+     * Mailboxes we don't sync are ignored rather than rejected, so Pub/Sub doesn't keep redelivering them.
+     *
+     * @throws org.json.JSONException   if the envelope or its payload isn't the expected JSON
+     * @throws IllegalArgumentException if the payload isn't valid base64
+     */
+    public void onNotification(String envelope) {
+        // 1. Unwrap the Pub/Sub envelope
+        String data = new JSONObject(envelope).getJSONObject("message").getString("data");
+        JSONObject payload = new JSONObject(new String(Base64.getDecoder().decode(data), StandardCharsets.UTF_8));
+        String email = payload.getString("emailAddress");
+
+        // 2. Only mailboxes that the scheduler would sync anyway
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null || !user.isActive() || user.isReauthRequired()) return;
+
+        // 3. The sync reads history from the stored cursor; a notification at or behind it has nothing new
+        BigInteger historyId = payload.optBigInteger("historyId", null);
+        if (historyId != null && user.getGmailHistoryId() != null && historyId.compareTo(user.getGmailHistoryId()) <= 0) {
+            return;
+        }
+
+        mailSyncScheduler.requestSync(email);
+    }
+
+    /**
+     * Gmail watches lapse after 7 days; renew each one a day before it does. Users whose watch can't be
+     * created stay on the regular polling schedule.
+     */
+    @Scheduled(fixedDelayString = "${dailyfix.gmail.push.watch-renew-interval-ms:900000}")
+    public void renewWatches() {
+        if (!isEnabled()) return;
+
+        List<User> users = userRepository.findWatchesToRenew(LocalDateTime.now().plusDays(1));
+        for (User user : users) {
+            try {
+                WatchRequest request = new WatchRequest()
+                        .setTopicName(topic)
+                        .setLabelIds(List.of("INBOX"))
+                        .setLabelFilterAction("include");
+                WatchResponse response = gmailClientFactory.forUser(user.getEmail()).users()
+                        .watch("me", request)
+                        .execute();
+                LocalDateTime expiresAt = LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(response.getExpiration()), ZoneId.systemDefault());
+                userRepository.updateWatchExpiry(user.getId(), expiresAt);
+            } catch (Exception e) {
+                System.err.println("Gmail watch renewal failed for " + user.getEmail() + ": " + e.getMessage());
+            }
+        }
+    }
+}
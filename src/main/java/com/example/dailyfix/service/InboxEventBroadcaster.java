@@ -0,0 +1,213 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.event.InboxDeltaEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-user Server-Sent Event streams of inbox deltas (see {@link InboxDeltaEvent}).
+ * <p>
+ * Each user's recent events are kept in a small replay buffer so a reconnecting client can resume from its
+ * Last-Event-ID. When that id is too old, or from before a restart, the client gets a single "RESYNC" event
+ * and should reload its lists once. Event ids are {@code <boot>-<sequence>}, so ids from an earlier process
+ * are recognised as such.
+ */
+@Service
+public class InboxEventBroadcaster {
+
+    private static final String RESYNC = "RESYNC";
+
+    private record Delivery(long sequence, String name, Object data) {
+    }
+
+    /**
+     * One open stream. Sends are chained per subscriber, so events stay in order and a slow client
+     * only ever delays itself, never the publisher or other users.
+     */
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private static final class Channel {
+        final Deque<Delivery> recent = new ArrayDeque<>();
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        // Events at or below this sequence may have been missed (evicted, or before the channel existed)
+        long floor;
+        long idleSince = System.currentTimeMillis();
+        boolean evicted;
+
+        Channel(long floor) {
+            this.floor = floor;
+        }
+    }
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private long sequence;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    // Writes block on the client's socket, so each one gets a virtual thread
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final long emitterTimeoutMs;
+    private final int replaySize;
+    private final long retentionMs;
+
+    public InboxEventBroadcaster(@Value("${dailyfix.events.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                                 @Value("${dailyfix.events.replay-size:100}") int replaySize,
+                                 @Value("${dailyfix.events.retention-ms:600000}") long retentionMs) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.replaySize = Math.max(1, replaySize);
+        this.retentionMs = retentionMs;
+    }
+
+    /**
+     * Opens a stream for the user, first replaying whatever they missed after lastEventId (may be blank).
+     */
+    public SseEmitter subscribe(String email, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        long after = parseSequence(lastEventId);
+
+        // 1. Register and take the backlog under the channel lock, so an event published meanwhile
+        //    is either in the backlog or delivered live, never both or neither
+        Channel channel;
+        while (true) {
+            channel = channels.computeIfAbsent(email, e -> new Channel(currentSequence()));
+            synchronized (channel) {
+                // Lost a race with the heartbeat evicting this channel; take the fresh one
+                if (channel.evicted) continue;
+
+                channel.subscribers.add(subscriber);
+                if (lastEventId != null && !lastEventId.isBlank() && after < channel.floor) {
+                    enqueue(subscriber, new Delivery(channel.floor, RESYNC, ""));
+                } else {
+                    for (Delivery delivery : channel.recent) {
+                        if (delivery.sequence() > after) {
+                            enqueue(subscriber, delivery);
+                        }
+                    }
+                }
+                break;
+            }
+        }
+        Channel subscribed = channel;
+
+        // 2. Whatever ends the stream, stop sending to it
+        emitter.onCompletion(() -> unsubscribe(subscribed, subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscribed, subscriber));
+        return emitter;
+    }
+
+    /**
+     * Buffers the delta and pushes it to the user's open streams. Only runs after commit, so clients never
+     * see a change that was rolled back; users who never opened a stream cost nothing.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInboxDelta(InboxDeltaEvent event) {
+        Channel channel = channels.get(event.userEmail());
+        if (channel == null) return;
+
+        synchronized (channel) {
+            Delivery delivery = new Delivery(nextSequence(), event.type().name(), event.payload());
+            channel.recent.addLast(delivery);
+            if (channel.recent.size() > replaySize) {
+                channel.floor = channel.recent.removeFirst().sequence();
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                enqueue(subscriber, delivery);
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies, notices dead clients, and forgets users
+     * who have been gone for longer than the retention window.
+     */
+    @Scheduled(fixedRateString = "${dailyfix.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.forEach((email, channel) -> {
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty() && now - channel.idleSince > retentionMs) {
+                    channel.evicted = true;
+                    channels.remove(email, channel);
+                    return;
+                }
+                for (Subscriber subscriber : channel.subscribers) {
+                    enqueue(subscriber, null);
+                }
+            }
+        });
+    }
+
+    private void unsubscribe(Channel channel, Subscriber subscriber) {
+        synchronized (channel) {
+            if (channel.subscribers.remove(subscriber) && channel.subscribers.isEmpty()) {
+                channel.idleSince = System.currentTimeMillis();
+            }
+        }
+    }
+
+    // A null delivery is a keep-alive comment
+    private void enqueue(Subscriber subscriber, Delivery delivery) {
+        synchronized (subscriber) {
+            subscriber.tail = subscriber.tail.thenRunAsync(() -> {
+                try {
+                    subscriber.emitter.send(delivery == null
+                            ? SseEmitter.event().comment("keep-alive")
+                            : SseEmitter.event().id(boot + "-" + delivery.sequence()).name(delivery.name()).data(delivery.data()));
+                } catch (IOException | IllegalStateException e) {
+                    // Disconnected or already completed; onError/onCompletion unsubscribes it
+                    subscriber.emitter.completeWithError(e);
+                }
+            }, senders);
+        }
+    }
+
+    private synchronized long nextSequence() {
+        return ++sequence;
+    }
+
+    private synchronized long currentSequence() {
+        return sequence;
+    }
+
+    /**
+     * Sequence part of an id issued by this process; -1 when absent, malformed or from an earlier boot.
+     */
+    private long parseSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(boot + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(boot.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
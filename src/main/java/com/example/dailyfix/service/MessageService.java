@@ -1,24 +1,38 @@
 package com.example.dailyfix.service;
 
+import com.example.dailyfix.aop.Traced;
+import com.example.dailyfix.aop.ValidateArgs;
+import com.example.dailyfix.dto.request.GeminiAnalysis;
+import com.example.dailyfix.dto.response.CursorPage;
+import com.example.dailyfix.dto.response.DashboardCounts;
+import com.example.dailyfix.dto.response.MessageDetail;
+import com.example.dailyfix.dto.response.MessageSummary;
 import com.example.dailyfix.enums.*;
+import com.example.dailyfix.event.InboxChangedEvent;
+import com.example.dailyfix.event.InboxDeltaEvent;
 import com.example.dailyfix.model.*;
 import com.example.dailyfix.repository.*;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.BatchModifyMessagesRequest;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryMessageAdded;
+import com.google.api.services.gmail.model.ListHistoryResponse;
 import com.google.api.services.gmail.model.ListMessagesResponse;
-import com.google.api.services.gmail.model.MessagePartHeader;
-import com.google.api.services.gmail.model.ModifyMessageRequest;
 import org.apache.commons.codec.binary.Base64;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.mail.Session;
 import javax.mail.internet.InternetAddress;
@@ -26,9 +40,15 @@ import javax.mail.internet.MimeMessage;
 import java.util.Properties;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 
 @Service
@@ -38,33 +58,56 @@ public class MessageService {
     private final PriorityService priorityService;
     private final TaskService taskService;
     private final UserRepository userRepository;
-    private final AlertWhitelistRepository alertWhitelistRepository;
-    private final SenderProfileRepository senderProfileRepository;
+    private final DomainPolicyIndex domainPolicyIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final TriageRuleEngine triageRuleEngine;
+    private final GmailClientFactory gmailClientFactory;
+    private final GmailAccessTokenProvider tokenProvider;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Autowired
-    private com.google.api.services.gmail.Gmail gmailService;
+    @Value("${dailyfix.sync.full-resync-query}")
+    private String fullResyncQuery;
 
-    @Autowired
-    private OAuth2AuthorizedClientManager authorizedClientManager;
+    @Value("${dailyfix.sync.full-resync-max-messages:500}")
+    private int fullResyncMaxMessages;
+
+    @Value("${dailyfix.sync.batch-fetch-enabled:true}")
+    private boolean batchFetchEnabled;
+
+    @Value("${dailyfix.sync.batch-size:50}")
+    private int batchSize;
+
+    // Gmail rejects batches above 100 calls and batchModify above 1000 ids
+    private static final int GMAIL_MAX_BATCH_SIZE = 100;
+    private static final int GMAIL_MAX_MODIFY_IDS = 1000;
 
     public MessageService(MessageRepository messageRepository,
                           PriorityService priorityService,
                           TaskService taskService,
                           UserRepository userRepository,
-                          AlertWhitelistRepository alertWhitelistRepository,
-                          SenderProfileRepository senderProfileRepository) {
+                          DomainPolicyIndex domainPolicyIndex,
+                          PlatformTransactionManager transactionManager,
+                          TriageRuleEngine triageRuleEngine,
+                          GmailClientFactory gmailClientFactory,
+                          GmailAccessTokenProvider tokenProvider,
+                          ApplicationEventPublisher eventPublisher) {
         this.messageRepository = messageRepository;
         this.priorityService = priorityService;
         this.taskService = taskService;
         this.userRepository = userRepository;
-        this.alertWhitelistRepository = alertWhitelistRepository;
-        this.senderProfileRepository = senderProfileRepository;
+        this.domainPolicyIndex = domainPolicyIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.triageRuleEngine = triageRuleEngine;
+        this.gmailClientFactory = gmailClientFactory;
+        this.tokenProvider = tokenProvider;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Entry point for manual sync from the Frontend.
      */
     @Async
+    @ValidateArgs
     public void fetchAndProcessGmail(Authentication authentication) {
         String email = (authentication instanceof OAuth2AuthenticationToken oauthToken)
                 ? oauthToken.getPrincipal().getAttribute("email")
@@ -76,68 +119,68 @@ public class MessageService {
 
     /**
      * Core logic used by both manual sync and background scheduler.
-     * Uses OAuth2AuthorizedClientManager to handle automatic token refresh.
+     * Token refresh happens inside GmailAccessTokenProvider on each Gmail request.
      */
+    @Traced
     public void processWithToken(String email) {
         try {
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found: " + email));
 
-            // 1. Get/Refresh the Access Token
-            OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest.withClientRegistrationId("google")
-                    .principal(email)
-                    .build();
-
-            // This requires AuthorizedClientServiceOAuth2AuthorizedClientManager in your Config
-            OAuth2AuthorizedClient authorizedClient = authorizedClientManager.authorize(authorizeRequest);
-
-            if (authorizedClient == null) {
+            // 1. Make sure the user still has a usable Google authorization
+            if (tokenProvider.getAccessToken(email) == null) {
                 System.err.println("CRITICAL: No authorized client found for " + email + ". User must re-login.");
                 return;
             }
 
-            String freshAccessToken = authorizedClient.getAccessToken().getTokenValue();
+            // 2. Reuse the user's Gmail client on the shared, pooled transport
+            Gmail gmail = gmailClientFactory.forUser(email);
 
-            // 2. Build Gmail API Client
-            Gmail gmail = new Gmail.Builder(
-                    GoogleNetHttpTransport.newTrustedTransport(),
-                    GsonFactory.getDefaultInstance(),
-                    null)
-                    .setHttpRequestInitializer(request ->
-                            request.getHeaders().setAuthorization("Bearer " + freshAccessToken))
-                    .setApplicationName("DailyFix")
-                    .build();
+            // 3. Work out which messages arrived since the last checkpoint
+            SyncDelta delta = listNewMessageIds(gmail, user);
 
-            // 3. Fetch messages from last 3 days
-            String query = "label:INBOX newer_than:3d";
-            ListMessagesResponse response = gmail.users().messages().list("me").setQ(query).execute();
+            // One IN query for the whole page instead of an exists check per message
+            Set<String> knownIds = delta.messageIds().isEmpty()
+                    ? Set.of()
+                    : messageRepository.findExistingGmailIds(delta.messageIds());
+            List<String> newIds = delta.messageIds().stream()
+                    .filter(gmailId -> !knownIds.contains(gmailId))
+                    .toList();
 
-            if (response.getMessages() != null) {
-                for (com.google.api.services.gmail.model.Message msgSummary : response.getMessages()) {
+            // 4. Pull full messages in batched round trips instead of one GET per email
+            FetchResult fetched = fetchMessages(gmail, newIds);
 
-                    if (messageRepository.existsByGmailId(msgSummary.getId())) continue;
+            List<Message> mapped = new ArrayList<>(fetched.messages().size());
+            for (com.google.api.services.gmail.model.Message fullEmail : fetched.messages()) {
+                Message message = GmailMessageMapper.toEntity(fullEmail, user);
+                message.setGmailId(fullEmail.getId());
+                mapped.add(message);
+            }
 
-                    com.google.api.services.gmail.model.Message fullEmail =
-                            gmail.users().messages().get("me", msgSummary.getId()).execute();
+            // 5. Single INSERT ... ON CONFLICT DO NOTHING; rows a concurrent sync already
+            //    stored are skipped instead of failing on the gmailId constraint
+            List<Message> inserted = messageRepository.insertIgnoringDuplicates(mapped);
 
-                    Message message = mapGmailToEntity(fullEmail, user);
-                    message.setGmailId(msgSummary.getId());
-                    message = messageRepository.save(message);
+            // Triage happens off this thread: TriageWorker claims the processed=false rows
+            List<String> ingestedIds = inserted.stream().map(Message::getGmailId).toList();
 
-                    // --- FIX FOR 429 ERRORS: Isolated Priority Processing ---
-                    try {
-                        processMessage(message);
+            // 6. One batchModify per cycle instead of a modify call per email. This runs even on a
+            //    partial cycle that keeps the old cursor: the next cycle re-lists these ids but skips
+            //    them as already stored, and only marks the rows it inserts itself, so this is the
+            //    only chance to mark them read. Re-listing must stay idempotent (step 5's ON CONFLICT).
+            markMessagesAsRead(gmail, ingestedIds);
 
-                        // Pause for 2 seconds between emails to avoid Gemini Free Tier rate limits
-                        Thread.sleep(2000);
-                    } catch (Exception aiEx) {
-                        System.err.println("Gemini analysis failed for message: " + message.getGmailId() + " - " + aiEx.getMessage());
-                        // We don't throw the error here so that the loop continues to the next email
-                    }
-
-                    markMessageAsRead(gmail, msgSummary.getId());
-                }
+            if (fetched.retryable() > 0) {
+                // Keep the old cursor so the throttled or failed fetches are retried next cycle
+                System.err.println("Partial fetch for " + email + ": " + fetched.messages().size() + "/" + newIds.size()
+                        + " messages, " + fetched.retryable() + " to retry");
+                return;
             }
+
+            // 7. Advance the cursor only after everything up to it is persisted,
+            //    so a crash mid-cycle resumes from the previous checkpoint
+            userRepository.updateSyncCheckpoint(user.getId(), delta.historyId(), LocalDateTime.now());
+
             System.out.println("Sync successfully completed for: " + email);
 
         } catch (Exception e) {
@@ -150,123 +193,249 @@ public class MessageService {
     /**
      * Analyzes message priority and generates tasks for High/Medium priority items.
      */
-    @Transactional
     public void processMessage(Message message) {
-        String domain = message.getSenderDomain();
+        Exception failure = processMessages(List.of(message)).get(message.getId());
+        if (failure != null) {
+            throw new RuntimeException("Triage failed for message " + message.getId() + ": " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Batch form of processMessage used by the triage queue. Every whitelisted message in the list
+     * is classified through one batched Gemini request, then each message's priority and task are
+     * committed in their own transaction. Returns the failures keyed by message id.
+     */
+    @Traced
+    public Map<Long, Exception> processMessages(List<Message> messages) {
+        Map<Long, Exception> failures = new HashMap<>();
+        List<PriorityService.BatchItem> toClassify = new ArrayList<>();
+
+        for (Message message : messages) {
+            Optional<TrustLevel> trust = resolveTrust(message);
+            if (trust.isEmpty()) {
+                completeTriage(message, Priority.SILENT, failures);
+                continue;
+            }
 
-        // Check whitelist
-        boolean isWhitelisted = alertWhitelistRepository.findBySenderDomain(domain)
-                .map(AlertWhitelist::isAlertEnabled)
-                .orElse(false);
+            // Obvious mail is decided locally and never costs a Gemini call
+            Optional<TriageRuleEngine.RuleMatch> rule = triageRuleEngine.evaluate(message);
+            if (rule.isPresent()) {
+                message.setIntent(rule.get().intent());
+                completeTriage(message, rule.get().priority(), failures);
+                continue;
+            }
 
-        if (!isWhitelisted) {
-            message.setPriority(Priority.SILENT);
-            message.setProcessed(true);
-            messageRepository.save(message);
-            return;
+            toClassify.add(new PriorityService.BatchItem(message, trust.get()));
+        }
+        if (toClassify.isEmpty()) {
+            return failures;
         }
 
-        // Determine Trust & Calculate Priority via Gemini
-        TrustLevel trust = senderProfileRepository.findBySenderDomain(domain)
-                .map(SenderProfile::getTrustLevel)
-                .orElse(TrustLevel.LOW);
+        Map<Long, GeminiAnalysis> analyses;
+        try {
+            analyses = priorityService.analyzeBatch(toClassify);
+        } catch (RuntimeException e) {
+            toClassify.forEach(item -> failures.put(item.message().getId(), e));
+            return failures;
+        }
 
-        Priority priority = priorityService.calculatePriority(message, trust);
-        message.setPriority(priority);
+        for (PriorityService.BatchItem item : toClassify) {
+            Message message = item.message();
+            GeminiAnalysis analysis = analyses.get(message.getId());
+            if (analysis.intent() != null) {
+                message.setIntent(MessageIntent.valueOf(analysis.intent()));
+            }
+            completeTriage(message, Priority.valueOf(analysis.priority()), failures);
+        }
+        return failures;
+    }
+
+    /**
+     * Trust level of the sender, or empty when the domain is not whitelisted for alerts.
+     * Both answers come from the in-memory DomainPolicyIndex; the most specific domain entry wins.
+     */
+    private Optional<TrustLevel> resolveTrust(Message message) {
+        String domain = message.getSenderDomain();
 
-        // Auto-create task if important
-        if (priority == Priority.HIGH || priority == Priority.MEDIUM) {
-            taskService.createTaskFromMessage(message);
+        // Check whitelist (a sender without an address has no domain and is never whitelisted)
+        if (domain == null || !domainPolicyIndex.isAlertEnabled(domain)) {
+            return Optional.empty();
         }
 
-        message.setProcessed(true);
-        messageRepository.save(message);
+        return Optional.of(domainPolicyIndex.trustLevelOf(domain).orElse(TrustLevel.LOW));
+    }
+
+    private void completeTriage(Message message, Priority priority, Map<Long, Exception> failures) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                message.setPriority(priority);
+
+                // Auto-create task if important
+                if (priority == Priority.HIGH || priority == Priority.MEDIUM) {
+                    taskService.createTaskFromMessage(message);
+                }
+
+                message.setProcessed(true);
+                messageRepository.save(message);
+
+                // Delivered after commit: DashboardSummaryService refreshes the user's summaries,
+                // InboxEventBroadcaster pushes the triaged row to their open streams
+                if (message.getUser() != null) {
+                    String email = message.getUser().getEmail();
+                    eventPublisher.publishEvent(new InboxChangedEvent(email));
+                    eventPublisher.publishEvent(new InboxDeltaEvent(email, InboxDeltaEvent.Type.MESSAGE_TRIAGED,
+                            MessageSummary.from(message)));
+                }
+            });
+        } catch (RuntimeException e) {
+            failures.put(message.getId(), e);
+        }
     }
 
     // --- DATA RETRIEVAL METHODS ---
 
-    public List<Message> getMessagesByUserEmail(String userEmail) {
-        return messageRepository.findByUserEmail(userEmail);
+    /**
+     * Newest-first page of the user's messages. Rows are projections without the body; see {@link #getMessageDetail}.
+     * A blank cursor starts from the newest message.
+     */
+    public CursorPage<MessageSummary> getMessagePage(String userEmail, String cursor, int size) {
+        CursorPage.Position after = CursorPage.Position.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        List<MessageSummary> rows = messageRepository.findSummaryPage(userEmail, after.at(), after.id(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, m -> new CursorPage.Position(m.receivedAt(), m.id()));
+    }
+
+    public CursorPage<MessageSummary> getMessagePageByPriority(String userEmail, Priority priority, String cursor, int size) {
+        CursorPage.Position after = CursorPage.Position.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        List<MessageSummary> rows = messageRepository.findSummaryPageByPriority(
+                userEmail, priority, after.at(), after.id(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, m -> new CursorPage.Position(m.receivedAt(), m.id()));
+    }
+
+    public MessageDetail getMessageDetail(Long id, String userEmail) {
+        return messageRepository.findDetail(id, userEmail)
+                .orElseThrow(() -> new RuntimeException("Message not found with id: " + id));
+    }
+
+    /**
+     * Newest messages received after {@code since}, capped at {@code limit} rows.
+     */
+    public List<Message> getRecentMessages(String userEmail, LocalDateTime since, int limit) {
+        return messageRepository.findByUserEmailAndReceivedAtAfterOrderByReceivedAtDesc(userEmail, since, Limit.of(limit));
     }
 
-    public List<Message> getMessagesByUserEmailAndPriority(String userEmail, Priority priority) {
-        return messageRepository.findByUserEmailAndPriority(userEmail, priority);
+    /**
+     * Recent mail, urgent mail and open task counts; empty for an unknown user.
+     */
+    public Optional<DashboardCounts> getDashboardCounts(String userEmail, LocalDateTime since) {
+        return messageRepository.countDashboardStats(userEmail, since);
     }
 
+    /**
+     * Puts a message back on the triage queue; TriageWorker picks it up on its next poll.
+     */
+    @ValidateArgs
     public void reprocessMessage(Long id) {
         Message message = messageRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
         message.setProcessed(false);
-        processMessage(message);
+        message.setTriageAttempts(0);
+        message.setNextTriageAt(null);
+        messageRepository.save(message);
     }
 
     // --- PRIVATE HELPERS ---
 
-    private Message mapGmailToEntity(com.google.api.services.gmail.model.Message gMsg, User user) {
-        Message message = new Message();
-        List<MessagePartHeader> headers = gMsg.getPayload().getHeaders();
-
-        // Extract "Subject" and "From" from headers
-        String subject = headers.stream()
-                .filter(h -> h.getName().equalsIgnoreCase("Subject"))
-                .map(MessagePartHeader::getValue).findFirst().orElse("No Subject");
-
-        String from = headers.stream()
-                .filter(h -> h.getName().equalsIgnoreCase("From"))
-                .map(MessagePartHeader::getValue).findFirst().orElse("Unknown");
-
-        message.setSubject(subject);
-        message.setSenderEmail(from);
+    /**
+     * Message IDs to ingest this cycle, plus the history id to checkpoint once they are stored.
+     */
+    private record SyncDelta(List<String> messageIds, BigInteger historyId) {
+    }
 
-        // Extract Domain for Whitelist checking
-        if (from != null && from.contains("@")) {
+    private SyncDelta listNewMessageIds(Gmail gmail, User user) throws IOException {
+        if (user.getGmailHistoryId() != null) {
             try {
-                String domain = from.substring(from.indexOf("@") + 1).split(">")[0].trim();
-                message.setSenderDomain(domain);
-            } catch (Exception e) {
-                message.setSenderDomain("unknown.com");
+                return listHistorySince(gmail, user.getGmailHistoryId());
+            } catch (GoogleJsonResponseException e) {
+                // Gmail answers 404 once the start id has aged out of its history window
+                if (e.getStatusCode() != 404) throw e;
+                System.out.println("History cursor expired for " + user.getEmail() + ", running full resync");
             }
         }
+        return fullResync(gmail);
+    }
 
-        message.setContent(gMsg.getSnippet());
-        message.setSourceType(SourceType.EMAIL);
-        message.setReceivedAt(LocalDateTime.now());
-        message.setProcessed(false);
-        message.setUser(user);
+    private SyncDelta listHistorySince(Gmail gmail, BigInteger startHistoryId) throws IOException {
+        Set<String> ids = new LinkedHashSet<>();
+        BigInteger latestHistoryId = startHistoryId;
+        String pageToken = null;
+
+        do {
+            ListHistoryResponse page = gmail.users().history().list("me")
+                    .setStartHistoryId(startHistoryId)
+                    .setHistoryTypes(List.of("messageAdded"))
+                    .setLabelId("INBOX")
+                    .setPageToken(pageToken)
+                    .execute();
+
+            if (page.getHistory() != null) {
+                for (History history : page.getHistory()) {
+                    if (history.getMessagesAdded() == null) continue;
+                    for (HistoryMessageAdded added : history.getMessagesAdded()) {
+                        ids.add(added.getMessage().getId());
+                    }
+                }
+            }
+            if (page.getHistoryId() != null) {
+                latestHistoryId = page.getHistoryId();
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+
+        return new SyncDelta(new ArrayList<>(ids), latestHistoryId);
+    }
+
+    private SyncDelta fullResync(Gmail gmail) throws IOException {
+        // Read the cursor before listing so mail arriving mid-listing is picked up next cycle
+        BigInteger historyId = gmail.users().getProfile("me").execute().getHistoryId();
+
+        List<String> ids = new ArrayList<>();
+        String pageToken = null;
+
+        do {
+            ListMessagesResponse page = gmail.users().messages().list("me")
+                    .setQ(fullResyncQuery)
+                    .setMaxResults((long) Math.min(500, fullResyncMaxMessages - ids.size()))
+                    .setPageToken(pageToken)
+                    .execute();
+
+            if (page.getMessages() != null) {
+                page.getMessages().forEach(m -> ids.add(m.getId()));
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null && ids.size() < fullResyncMaxMessages);
 
-        return message;
+        return new SyncDelta(ids, historyId);
     }
 
+    @Traced
+    @ValidateArgs
     public void sendNewEmail(String to, String subject, String bodyText) {
-        // 1. Get the current authentication
+        // 1. Get the current authentication (its name is the user's email)
         org.springframework.security.core.Authentication authentication =
                 org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
 
-        // 2. Build a refresh request
-        org.springframework.security.oauth2.client.OAuth2AuthorizeRequest authorizeRequest =
-                org.springframework.security.oauth2.client.OAuth2AuthorizeRequest.withClientRegistrationId("google")
-                        .principal(authentication)
-                        .build();
-
-        // 3. Let the Manager handle the token (it will refresh if expired!)
-        org.springframework.security.oauth2.client.OAuth2AuthorizedClient authorizedClient =
-                this.authorizedClientManager.authorize(authorizeRequest);
-
-        if (authorizedClient == null) {
+        // 2. Make sure a token is available before building the MIME message
+        if (tokenProvider.getAccessToken(authentication.getName()) == null) {
             throw new RuntimeException("Client authorization failed - Try logging out and in.");
         }
 
-        String accessToken = authorizedClient.getAccessToken().getTokenValue();
-
         try {
-            // 4. Initialize Gmail Service
-            com.google.api.services.gmail.Gmail gmailService = new com.google.api.services.gmail.Gmail.Builder(
-                    com.google.api.client.googleapis.javanet.GoogleNetHttpTransport.newTrustedTransport(),
-                    com.google.api.client.json.gson.GsonFactory.getDefaultInstance(),
-                    request -> request.getHeaders().setAuthorization("Bearer " + accessToken)
-            ).setApplicationName("DailyFix").build();
-
-            // 5. Construct & Send
+            // 3. Reuse the user's pooled Gmail client
+            Gmail gmailService = gmailClientFactory.forUser(authentication.getName());
+
+            // 4. Construct & Send
             Properties props = new Properties();
             javax.mail.Session session = javax.mail.Session.getInstance(props, null);
             javax.mail.internet.MimeMessage email = new javax.mail.internet.MimeMessage(session);
@@ -289,9 +458,70 @@ public class MessageService {
         }
     }
 
-    private void markMessageAsRead(Gmail gmail, String messageId) throws IOException {
-        ModifyMessageRequest mods = new ModifyMessageRequest()
-                .setRemoveLabelIds(Collections.singletonList("UNREAD"));
-        gmail.users().messages().modify("me", messageId, mods).execute();
+    /**
+     * Messages fetched this cycle, plus how many fetches failed transiently (429, 5xx, Gmail's 403
+     * rate limits) and are worth retrying. Messages deleted or purged since they were listed (404, 410)
+     * are counted as neither, since no retry will ever find them.
+     */
+    private record FetchResult(List<com.google.api.services.gmail.model.Message> messages, int retryable) {
+    }
+
+    private static boolean isGone(int statusCode) {
+        return statusCode == 404 || statusCode == 410;
+    }
+
+    private FetchResult fetchMessages(Gmail gmail, List<String> ids) throws IOException {
+        List<com.google.api.services.gmail.model.Message> fetched = new ArrayList<>(ids.size());
+        int[] retryable = {0};
+
+        if (!batchFetchEnabled) {
+            for (String id : ids) {
+                try {
+                    fetched.add(gmail.users().messages().get("me", id).execute());
+                } catch (GoogleJsonResponseException e) {
+                    if (!isGone(e.getStatusCode())) throw e;
+                    System.out.println("Gmail message " + id + " is gone, skipping");
+                }
+            }
+            return new FetchResult(fetched, 0);
+        }
+
+        // Callbacks run on this thread while batch.execute() parses the multipart response
+        JsonBatchCallback<com.google.api.services.gmail.model.Message> callback = new JsonBatchCallback<>() {
+            @Override
+            public void onSuccess(com.google.api.services.gmail.model.Message message, HttpHeaders responseHeaders) {
+                fetched.add(message);
+            }
+
+            @Override
+            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                // Deleted between listing and fetching: retrying would fail forever and pin the cursor
+                if (isGone(error.getCode())) {
+                    System.out.println("Batched Gmail fetch skipped a deleted message: " + error.getMessage());
+                    return;
+                }
+                retryable[0]++;
+                System.err.println("Batched Gmail fetch failed: " + error.getCode() + " " + error.getMessage());
+            }
+        };
+
+        int chunkSize = Math.max(1, Math.min(batchSize, GMAIL_MAX_BATCH_SIZE));
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            BatchRequest batch = gmail.batch();
+            for (String id : ids.subList(from, Math.min(from + chunkSize, ids.size()))) {
+                gmail.users().messages().get("me", id).queue(batch, callback);
+            }
+            batch.execute();
+        }
+        return new FetchResult(fetched, retryable[0]);
+    }
+
+    private void markMessagesAsRead(Gmail gmail, List<String> messageIds) throws IOException {
+        for (int from = 0; from < messageIds.size(); from += GMAIL_MAX_MODIFY_IDS) {
+            BatchModifyMessagesRequest mods = new BatchModifyMessagesRequest()
+                    .setIds(messageIds.subList(from, Math.min(from + GMAIL_MAX_MODIFY_IDS, messageIds.size())))
+                    .setRemoveLabelIds(List.of("UNREAD"));
+            gmail.users().messages().batchModify("me", mods).execute();
+        }
     }
 }
\ No newline at end of file
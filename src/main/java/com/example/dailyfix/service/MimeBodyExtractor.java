@@ -0,0 +1,257 @@
+package com.example.dailyfix.service;
+
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Readable body text from a Gmail format=full payload, with hard limits on the work done per message.
+ * <p>
+ * Walks the MIME tree for the first inline text/plain part, falling back to text/html with tags stripped.
+ * Attachments are recognised from their metadata and never decoded. The chosen part's base64url data is
+ * decoded a chunk at a time, straight into the text sink, and stops once {@link #MAX_DECODED_BYTES} have
+ * been decoded or {@link #MAX_CHARS} characters kept, so a 20 MB newsletter costs no more than a short note.
+ */
+public final class MimeBodyExtractor {
+
+    /** Decoded bytes read from the chosen part; bounds CPU on long HTML before any visible text. */
+    static final int MAX_DECODED_BYTES = 64 * 1024;
+    /** Characters kept; this is what reaches the triage prompt. */
+    static final int MAX_CHARS = 2000;
+
+    private static final int MAX_DEPTH = 8;
+    private static final int MAX_PARTS = 64;
+    // Multiple of 4, so every chunk but the last is whole base64 quanta
+    private static final int CHUNK_CHARS = 4096;
+
+    private MimeBodyExtractor() {
+    }
+
+    /**
+     * Returns the body text, whitespace-collapsed and at most {@link #MAX_CHARS} long,
+     * or null when the message has no inline text part with data.
+     */
+    public static String extract(MessagePart payload) {
+        if (payload == null) return null;
+
+        // 1. Find the best part without decoding anything
+        MessagePart plain = null;
+        MessagePart html = null;
+        Deque<MessagePart> stack = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        stack.push(payload);
+        depths.push(0);
+        int visited = 0;
+        while (!stack.isEmpty() && visited++ < MAX_PARTS) {
+            MessagePart part = stack.pop();
+            int depth = depths.pop();
+            String mimeType = part.getMimeType() == null ? "" : part.getMimeType().toLowerCase(Locale.ROOT);
+
+            if (mimeType.startsWith("multipart/")) {
+                List<MessagePart> children = part.getParts();
+                if (children == null || depth >= MAX_DEPTH) continue;
+                // Pushed in reverse so the tree is walked in document order
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(children.get(i));
+                    depths.push(depth + 1);
+                }
+            } else if (!isAttachment(part) && hasData(part)) {
+                if (plain == null && mimeType.equals("text/plain")) {
+                    plain = part;
+                    break;
+                }
+                if (html == null && mimeType.equals("text/html")) {
+                    html = part;
+                }
+            }
+        }
+
+        // 2. Decode only the chosen part
+        MessagePart chosen = plain != null ? plain : html;
+        if (chosen == null) return null;
+
+        TextSink sink = new TextSink(chosen == html);
+        decode(chosen.getBody().getData(), charsetOf(chosen), sink);
+        String text = sink.toString();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static boolean isAttachment(MessagePart part) {
+        if (part.getFilename() != null && !part.getFilename().isEmpty()) return true;
+        if (part.getBody() != null && part.getBody().getAttachmentId() != null) return true;
+        String disposition = header(part, "Content-Disposition");
+        return disposition != null && disposition.toLowerCase(Locale.ROOT).startsWith("attachment");
+    }
+
+    private static boolean hasData(MessagePart part) {
+        return part.getBody() != null && part.getBody().getData() != null && !part.getBody().getData().isEmpty();
+    }
+
+    private static Charset charsetOf(MessagePart part) {
+        String contentType = header(part, "Content-Type");
+        if (contentType != null) {
+            int at = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+            if (at >= 0) {
+                String name = contentType.substring(at + "charset=".length()).split("[;\\s]")[0].replace("\"", "");
+                try {
+                    return Charset.forName(name);
+                } catch (RuntimeException e) {
+                    // Unknown or malformed charset: UTF-8 with replacement is the best guess
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static String header(MessagePart part, String name) {
+        if (part.getHeaders() == null) return null;
+        for (MessagePartHeader header : part.getHeaders()) {
+            if (name.equalsIgnoreCase(header.getName())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes base64url a chunk at a time into the sink, stopping at the byte budget or once the sink is full.
+     */
+    private static void decode(String data, Charset charset, TextSink sink) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        Base64.Decoder base64 = Base64.getUrlDecoder();
+        byte[] decoded = new byte[CHUNK_CHARS / 4 * 3];
+        ByteBuffer bytes = ByteBuffer.allocate(decoded.length + 8);
+        CharBuffer chars = CharBuffer.allocate(bytes.capacity());
+        int budget = MAX_DECODED_BYTES;
+
+        for (int start = 0; start < data.length() && budget > 0 && !sink.isFull(); start += CHUNK_CHARS) {
+            int end = Math.min(start + CHUNK_CHARS, data.length());
+            int length;
+            try {
+                length = base64.decode(data.substring(start, end).getBytes(StandardCharsets.ISO_8859_1), decoded);
+            } catch (IllegalArgumentException e) {
+                // Corrupt data: keep what was decoded so far
+                break;
+            }
+            length = Math.min(length, budget);
+            budget -= length;
+
+            // Bytes of a character split across chunks stay in the buffer for the next round
+            bytes.put(decoded, 0, length).flip();
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+            sink.append(chars.flip());
+            chars.clear();
+        }
+    }
+
+    /**
+     * Collects visible text, collapsing whitespace and, for HTML, dropping tags and script/style/head content.
+     */
+    private static final class TextSink {
+        private final boolean html;
+        private final StringBuilder text = new StringBuilder();
+        private boolean pendingSpace;
+        private boolean full;
+
+        private boolean inTag;
+        private final StringBuilder tagName = new StringBuilder();
+        private boolean readingTagName;
+        private char lastInTag;
+        // Closing tag that ends a skipped element, e.g. "/style"
+        private String skipUntil;
+
+        TextSink(boolean html) {
+            this.html = html;
+        }
+
+        boolean isFull() {
+            return full || text.length() >= MAX_CHARS;
+        }
+
+        void append(CharBuffer chars) {
+            while (chars.hasRemaining() && !isFull()) {
+                char c = chars.get();
+                if (html) {
+                    html(c);
+                } else {
+                    visible(c);
+                }
+            }
+        }
+
+        private void html(char c) {
+            if (inTag) {
+                if (c == '<') {
+                    // A stray '<' (e.g. "a < b" in a script) never closes; start over at this one
+                    readingTagName = true;
+                    tagName.setLength(0);
+                } else if (c == '>') {
+                    inTag = false;
+                    endTag(tagName.toString().toLowerCase(Locale.ROOT), lastInTag == '/');
+                } else if (readingTagName) {
+                    if (Character.isWhitespace(c) || tagName.length() >= 16) {
+                        readingTagName = false;
+                    } else {
+                        tagName.append(c);
+                    }
+                }
+                lastInTag = c;
+            } else if (c == '<') {
+                inTag = true;
+                readingTagName = true;
+                tagName.setLength(0);
+            } else if (skipUntil == null) {
+                visible(c);
+            }
+        }
+
+        private void endTag(String name, boolean selfClosing) {
+            if (skipUntil != null) {
+                if (name.equals(skipUntil)) skipUntil = null;
+                return;
+            }
+            // "<script src=... />" has no content and no closing tag to wait for
+            if (!selfClosing && (name.equals("script") || name.equals("style") || name.equals("head"))) {
+                skipUntil = "/" + name;
+            }
+            // Block boundaries would otherwise glue words together
+            pendingSpace = true;
+        }
+
+        private void visible(char c) {
+            if (Character.isWhitespace(c) || c == '\u00A0') {
+                pendingSpace = true;
+                return;
+            }
+            if (pendingSpace && !text.isEmpty()) {
+                // No room for the separator and a character after it
+                if (text.length() + 2 > MAX_CHARS) {
+                    full = true;
+                    return;
+                }
+                text.append(' ');
+            }
+            pendingSpace = false;
+            text.append(c);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.dailyfix.service;
 
+import com.example.dailyfix.aop.Traced;
+import com.example.dailyfix.dto.request.GeminiAnalysis;
 import com.example.dailyfix.enums.*;
 import com.example.dailyfix.model.Message;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.HtmlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -17,74 +25,254 @@ public class PriorityService {
     @Value("${gemini.api.key}")
     private String apiKey;
 
-    private final String API_URL =
-            "https://generativelanguage.googleapis.com/v1beta/models/gemini-3-flash-preview:generateContent?key=";
+    @Value("${gemini.classification.batch-size:10}")
+    private int batchSize;
+
+    @Value("${gemini.classification.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-3-flash-preview:generateContent}")
+    private String classificationUrl;
+
     private final RestTemplate restTemplate = new RestTemplate();
+    private final GeminiRateLimiter rateLimiter;
+    private final ClassificationCache classificationCache;
+
+    // Shared by the single and batch prompts; a batch sends it once for all of its emails
+    private static final String RULES_AND_EXAMPLES = """
+            # CATEGORIZATION RULES:
+            - HIGH: System failures, production issues, deadlines < 24h, or direct boss requests.
+            - MEDIUM: Project updates, internal follow-ups, or standard client meetings.
+            - LOW: Newsletters, general industry updates, or non-urgent internal FYIs.
+            - SILENT: Automated system notifications (Social media, generic Google alerts).
+
+            # EXAMPLES:
+            - "Urgent: Database resize needed in 2h" -> {"priority": "HIGH", "intent": "ACTION_REQUIRED"}
+            - "Your weekly GitHub report" -> {"priority": "SILENT", "intent": "INFORMATIONAL"}
+            """;
+
+    /**
+     * One message to classify together with its sender's trust level.
+     */
+    public record BatchItem(Message message, TrustLevel trust) {
+    }
+
+    /**
+     * Gemini could not be reached or refused the request; unlike a malformed answer this is worth retrying.
+     */
+    public static class GeminiUnavailableException extends RuntimeException {
+        public GeminiUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    public PriorityService(GeminiRateLimiter rateLimiter, ClassificationCache classificationCache) {
+        this.rateLimiter = rateLimiter;
+        this.classificationCache = classificationCache;
+    }
 
     // FIXED: Now accepts TrustLevel as the second argument
     public Priority calculatePriority(Message message, TrustLevel trust) {
+        GeminiAnalysis analysis = analyzeBatch(List.of(new BatchItem(message, trust))).get(message.getId());
+        if (analysis.intent() != null) {
+            message.setIntent(MessageIntent.valueOf(analysis.intent()));
+        }
+        return Priority.valueOf(analysis.priority());
+    }
+
+    /**
+     * Classifies many messages with one Gemini request per {@code gemini.classification.batch-size} chunk.
+     * Entries the model leaves out or answers with unparseable JSON fall back to a single-message call.
+     * Transport failures propagate so the triage queue can retry the whole chunk.
+     * Messages whose content was already classified (for any user) are answered from the cache.
+     */
+    @Traced
+    public Map<Long, GeminiAnalysis> analyzeBatch(List<BatchItem> items) {
+        Map<Long, GeminiAnalysis> results = new HashMap<>();
+
+        Map<Long, String> cacheKeys = new HashMap<>();
+        for (BatchItem item : items) {
+            cacheKeys.put(item.message().getId(), ClassificationCache.keyFor(item.message(), item.trust()));
+        }
+        Map<String, GeminiAnalysis> cached = classificationCache.getAll(cacheKeys.values());
+
+        List<BatchItem> uncached = new ArrayList<>();
+        for (BatchItem item : items) {
+            GeminiAnalysis hit = cached.get(cacheKeys.get(item.message().getId()));
+            if (hit != null) {
+                results.put(item.message().getId(), hit);
+            } else {
+                uncached.add(item);
+            }
+        }
+
+        int chunkSize = Math.max(1, batchSize);
+        for (int from = 0; from < uncached.size(); from += chunkSize) {
+            List<BatchItem> chunk = uncached.subList(from, Math.min(from + chunkSize, uncached.size()));
+
+            Map<Long, GeminiAnalysis> parsed = Map.of();
+            if (chunk.size() > 1) {
+                try {
+                    parsed = parseBatchAnalysis(callGemini(buildBatchPrompt(chunk)));
+                } catch (GeminiUnavailableException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    System.err.println("Batch classification unparseable, falling back per message: " + e.getMessage());
+                }
+            }
+
+            for (BatchItem item : chunk) {
+                GeminiAnalysis analysis = parsed.get(item.message().getId());
+                if (analysis == null) {
+                    analysis = analyze(item.message(), item.trust());
+                }
+                // A null intent marks the unparseable-answer fallback; don't pin that for everyone
+                if (analysis.intent() != null) {
+                    classificationCache.put(cacheKeys.get(item.message().getId()), analysis);
+                }
+                results.put(item.message().getId(), analysis);
+            }
+        }
+        return results;
+    }
+
+    private GeminiAnalysis analyze(Message message, TrustLevel trust) {
         try {
             // 1. Sanitize input to prevent HTML tags from confusing the AI
             String cleanSubject = HtmlUtils.htmlUnescape(message.getSubject());
             String cleanContent = HtmlUtils.htmlUnescape(message.getContent());
 
             // 2. Industry-Grade System Prompt (Persona + Heuristics + Examples)
-            String prompt = String.format("""
+            String prompt = buildPrompt(cleanSubject, cleanContent, trust);
+
+            // 3. Robust JSON Extraction
+            GeminiAnalysis analysis = parseAnalysis(callGemini(prompt));
+            System.out.println("AI Decision Reason: " + analysis.reason());
+            return analysis;
+
+        } catch (GeminiUnavailableException e) {
+            // Transport/HTTP failures are retryable: let the triage queue back off and try again
+            throw e;
+        } catch (RuntimeException e) {
+            System.err.println("Gemini analysis failed: " + e.getMessage());
+            return new GeminiAnalysis(Priority.SILENT.name(), null, "Unparseable AI response");
+        }
+    }
+
+    /**
+     * Single-email classification prompt; inputs are expected to be HTML-unescaped already.
+     */
+    public static String buildPrompt(String cleanSubject, String cleanContent, TrustLevel trust) {
+        return String.format("""
             # PERSONA: Senior Executive Assistant
             # GOAL: Triage emails for a high-priority software lead.
             # SENDER TRUST: %s (High trust = verify requests; Low trust = be skeptical).
 
-            # CATEGORIZATION RULES:
-            - HIGH: System failures, production issues, deadlines < 24h, or direct boss requests.
-            - MEDIUM: Project updates, internal follow-ups, or standard client meetings.
-            - LOW: Newsletters, general industry updates, or non-urgent internal FYIs.
-            - SILENT: Automated system notifications (Social media, generic Google alerts).
-
-            # EXAMPLES:
-            - "Urgent: Database resize needed in 2h" -> {"priority": "HIGH", "intent": "ACTION_REQUIRED"}
-            - "Your weekly GitHub report" -> {"priority": "SILENT", "intent": "INFORMATIONAL"}
-
+            %s
             # CURRENT EMAIL:
             Subject: %s
             Content: %s
 
             Return JSON ONLY: {"priority": "HIGH|MEDIUM|LOW|SILENT", "intent": "ACTION_REQUIRED|INFORMATIONAL|PROMOTIONAL", "reason": "why"}
-            """, trust.name(), cleanSubject, cleanContent);
+            """, trust.name(), RULES_AND_EXAMPLES, cleanSubject, cleanContent);
+    }
 
-            Map<String, Object> body = Map.of("contents", new Object[]{
-                    Map.of("parts", new Object[]{Map.of("text", prompt)})
-            });
+    public static String buildBatchPrompt(List<BatchItem> chunk) {
+        StringBuilder prompt = new StringBuilder("""
+                # PERSONA: Senior Executive Assistant
+                # GOAL: Triage each of the emails below for a high-priority software lead.
+                # SENDER TRUST is given per email (High trust = verify requests; Low trust = be skeptical).
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+                """);
+        prompt.append(RULES_AND_EXAMPLES).append("\n# EMAILS:\n");
 
-            // CORRECTED: Explicitly declaring the 'response' variable here
-            ResponseEntity<String> response = restTemplate.postForEntity(API_URL + apiKey, entity, String.class);
+        for (BatchItem item : chunk) {
+            prompt.append("## EMAIL id=").append(item.message().getId())
+                    .append(" | SENDER TRUST: ").append(item.trust().name()).append('\n')
+                    .append("Subject: ").append(HtmlUtils.htmlUnescape(item.message().getSubject())).append('\n')
+                    .append("Content: ").append(HtmlUtils.htmlUnescape(item.message().getContent())).append("\n\n");
+        }
 
-            if (response.getBody() == null) {
-                System.err.println("❌ AI Error: Empty Response Body");
-                return Priority.SILENT;
-            }
+        prompt.append("""
+                Return a JSON array ONLY, with one object per email:
+                [{"id": 123, "priority": "HIGH|MEDIUM|LOW|SILENT", "intent": "ACTION_REQUIRED|INFORMATIONAL|PROMOTIONAL", "reason": "why"}]
+                """);
+        return prompt.toString();
+    }
 
-            // 3. Robust JSON Extraction
-            JSONObject json = new JSONObject(response.getBody());
-            String rawText = json.getJSONArray("candidates").getJSONObject(0)
-                    .getJSONObject("content").getJSONArray("parts").getJSONObject(0)
-                    .getString("text");
+    /**
+     * Sends one prompt and returns the model's raw text.
+     */
+    private String callGemini(String prompt) {
+        Map<String, Object> body = Map.of("contents", new Object[]{
+                Map.of("parts", new Object[]{Map.of("text", prompt)})
+        });
 
-            // Remove markdown formatting (```json ... ```) if Gemini returns it
-            String cleanJson = rawText.replaceAll("(?s)^.*?\\{", "{").replaceAll("\\}.*?$", "}");
-            JSONObject result = new JSONObject(cleanJson);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
 
-            message.setIntent(MessageIntent.valueOf(result.getString("intent")));
-            System.out.println("AI Decision Reason: " + result.getString("reason"));
+        ResponseEntity<String> response;
+        try {
+            // Shared with AIService so concurrent syncs can't jointly exceed the Gemini quota
+            rateLimiter.acquire();
+            response = restTemplate.postForEntity(classificationUrl + "?key=" + apiKey, entity, String.class);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            rateLimiter.onThrottled(GeminiRateLimiter.parseRetryAfter(
+                    e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null));
+            throw new GeminiUnavailableException("Gemini unavailable: " + e.getMessage(), e);
+        } catch (RestClientException e) {
+            throw new GeminiUnavailableException("Gemini unavailable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeminiUnavailableException("Interrupted while waiting for Gemini quota", e);
+        }
+        rateLimiter.onSuccess();
 
-            return Priority.valueOf(result.getString("priority"));
+        if (response.getBody() == null) {
+            throw new IllegalStateException("AI Error: Empty Response Body");
+        }
 
-        } catch (Exception e) {
-            System.err.println("Gemini analysis failed: " + e.getMessage());
-            return Priority.SILENT;
+        JSONObject json = new JSONObject(response.getBody());
+        return json.getJSONArray("candidates").getJSONObject(0)
+                .getJSONObject("content").getJSONArray("parts").getJSONObject(0)
+                .getString("text");
+    }
+
+    /**
+     * Extracts the single-email JSON answer, tolerating markdown fences around it.
+     */
+    public static GeminiAnalysis parseAnalysis(String rawText) {
+        // Remove markdown formatting (```json ... ```) if Gemini returns it
+        String cleanJson = rawText.replaceAll("(?s)^.*?\\{", "{").replaceAll("\\}.*?$", "}");
+        JSONObject result = new JSONObject(cleanJson);
+
+        String priority = Priority.valueOf(result.getString("priority")).name();
+        String intent = MessageIntent.valueOf(result.getString("intent")).name();
+        return new GeminiAnalysis(priority, intent, result.optString("reason"));
+    }
+
+    /**
+     * Extracts the batch JSON array keyed by message id. Entries with a missing id or
+     * unknown priority/intent are dropped so the caller retries them individually.
+     */
+    public static Map<Long, GeminiAnalysis> parseBatchAnalysis(String rawText) {
+        int start = rawText.indexOf('[');
+        int end = rawText.lastIndexOf(']');
+        if (start < 0 || end < start) {
+            throw new IllegalStateException("No JSON array in batch response");
+        }
+
+        JSONArray array = new JSONArray(rawText.substring(start, end + 1));
+        Map<Long, GeminiAnalysis> results = new HashMap<>();
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject entry = array.optJSONObject(i);
+            if (entry == null || !entry.has("id")) continue;
+            try {
+                String priority = Priority.valueOf(entry.getString("priority")).name();
+                String intent = MessageIntent.valueOf(entry.getString("intent")).name();
+                results.put(entry.getLong("id"), new GeminiAnalysis(priority, intent, entry.optString("reason")));
+            } catch (RuntimeException e) {
+                // Leave it out; analyzeBatch falls back to a single call for this message
+            }
         }
+        return results;
     }
-}
\ No newline at end of file
+}
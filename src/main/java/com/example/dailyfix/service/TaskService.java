@@ -1,9 +1,16 @@
 package com.example.dailyfix.service;
 
+import com.example.dailyfix.aop.ValidateArgs;
+import com.example.dailyfix.dto.response.CursorPage;
+import com.example.dailyfix.dto.response.TaskDetail;
+import com.example.dailyfix.dto.response.TaskSummary;
 import com.example.dailyfix.enums.*;
+import com.example.dailyfix.event.InboxChangedEvent;
+import com.example.dailyfix.event.InboxDeltaEvent;
 import com.example.dailyfix.model.*;
 import com.example.dailyfix.repository.*;
-import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,16 +24,19 @@ public class TaskService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final ActivityLogService activityLogService;
-    private final MessageInteractionRepository interactionRepository;
+    private final AuditWriter auditWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TaskService(TaskRepository taskRepository,
                        UserRepository userRepository,
                        ActivityLogService activityLogService,
-                       MessageInteractionRepository interactionRepository) {
+                       AuditWriter auditWriter,
+                       ApplicationEventPublisher eventPublisher) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.activityLogService = activityLogService;
-        this.interactionRepository = interactionRepository;
+        this.auditWriter = auditWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- NEW: SIMULTANEOUS REFRESH LOGIC ---
@@ -35,13 +45,14 @@ public class TaskService {
      * Fetches tasks specifically linked to a selected message and user.
      * This ensures the "Active Directives" update when you switch emails.
      */
-    public List<Task> getTasksByMessageIdAndEmail(Long messageId, String userEmail) {
-        return taskRepository.findBySourceMessageIdAndAssignedToEmail(messageId, userEmail);
+    public List<TaskSummary> getTasksByMessageIdAndEmail(Long messageId, String userEmail) {
+        return taskRepository.findSummariesBySourceMessage(messageId, userEmail);
     }
 
     // --- CORE LOGIC: Create Task ---
 
     @Transactional
+    @ValidateArgs
     public void createTaskFromMessage(Message message) {
         validateMessage(message);
         Task task = buildTask(message);
@@ -60,11 +71,16 @@ public class TaskService {
                 ActionType.CREATED,
                 "AI generated directive from inbound intelligence"
         );
+
+        if (message.getUser() != null) {
+            publishDelta(message.getUser().getEmail(), InboxDeltaEvent.Type.TASK_CREATED, task);
+        }
     }
 
     // --- DASHBOARD INTERACTIONS ---
 
     @Transactional
+    @ValidateArgs
     public void completeTaskByEmail(Long id, String email) {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
@@ -84,10 +100,15 @@ public class TaskService {
         interaction.setAction(InteractionType.COMPLETED);
         interaction.setInteractedAt(LocalDateTime.now());
         interaction.setFeedbackNotes("Task completed normally");
-        interactionRepository.save(interaction);
+        // The feedback loop learns from these, so they commit with the status change
+        auditWriter.append(interaction, AuditWriter.Durability.SYNC);
+
+        eventPublisher.publishEvent(new InboxChangedEvent(email));
+        publishDelta(email, InboxDeltaEvent.Type.TASK_STATUS_CHANGED, task);
     }
 
     @Transactional
+    @ValidateArgs
     public void dismissTask(Long taskId, String userEmail, String reason) {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
@@ -106,22 +127,41 @@ public class TaskService {
         interaction.setAction(InteractionType.DISMISSED);
         interaction.setInteractedAt(LocalDateTime.now());
         interaction.setFeedbackNotes(reason);
-        interactionRepository.save(interaction);
+        auditWriter.append(interaction, AuditWriter.Durability.SYNC);
+
+        eventPublisher.publishEvent(new InboxChangedEvent(userEmail));
+        publishDelta(userEmail, InboxDeltaEvent.Type.TASK_STATUS_CHANGED, task);
     }
 
     // --- DATA RETRIEVAL ---
 
-    public List<Task> getAll() {
-        return taskRepository.findAll();
+    /**
+     * Newest-first page of the user's tasks; rows omit the description (see {@link #getTaskDetail}).
+     */
+    public CursorPage<TaskSummary> getTaskPage(String userEmail, String cursor, int size) {
+        CursorPage.Position after = CursorPage.Position.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        List<TaskSummary> rows = taskRepository.findSummaryPage(userEmail, after.at(), after.id(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, t -> new CursorPage.Position(t.createdAt(), t.id()));
     }
 
-    public @Nullable List<Task> getTasksByAssignedUserEmail(String userEmail) {
-        return taskRepository.findByAssignedToEmail(userEmail);
+    public TaskDetail getTaskDetail(Long id, String userEmail) {
+        return taskRepository.findDetail(id, userEmail)
+                .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
     }
 
+    /**
+     * Newest open tasks for the user, capped at {@code limit} rows.
+     */
+    public List<Task> getOpenTasks(String userEmail, int limit) {
+        return taskRepository.findByAssignedToEmailAndStatusOrderByCreatedAtDesc(userEmail, TaskStatus.OPEN, Limit.of(limit));
+    }
 
-    public List<Task> getAllTasks() {
-        return taskRepository.findAll();
+    public CursorPage<TaskSummary> getAllTaskPage(String cursor, int size) {
+        CursorPage.Position after = CursorPage.Position.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        List<TaskSummary> rows = taskRepository.findAllSummaryPage(after.at(), after.id(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, t -> new CursorPage.Position(t.createdAt(), t.id()));
     }
 
     // --- PRIVATE HELPERS ---
@@ -158,20 +198,31 @@ public class TaskService {
         System.out.println("🚨 HIGH PRIORITY ALERT: " + message.getSubject());
     }
 
+    // Pushed to the user's open event streams after commit (see InboxEventBroadcaster)
+    private void publishDelta(String email, InboxDeltaEvent.Type type, Task task) {
+        eventPublisher.publishEvent(new InboxDeltaEvent(email, type, TaskSummary.from(task)));
+    }
+
 
+    @ValidateArgs
     public void updateTaskStatus(Long id, String status) {
-        Optional<Task> taskOptional = taskRepository.findById(id);
+        Optional<Task> taskOptional = taskRepository.findWithAssigneeById(id);
         if (taskOptional.isPresent()) {
             Task task = taskOptional.get();
             // Convert String from frontend (e.g., "COMPLETED") to your Enum
             task.setStatus(TaskStatus.valueOf(status.toUpperCase()));
             taskRepository.save(task);
+
+            if (task.getAssignedTo() != null) {
+                eventPublisher.publishEvent(new InboxChangedEvent(task.getAssignedTo().getEmail()));
+                publishDelta(task.getAssignedTo().getEmail(), InboxDeltaEvent.Type.TASK_STATUS_CHANGED, task);
+            }
         }
     }
 
     // FIX 2: Handle Optional properly for the Controller
     public Task getTaskById(Long id) {
-        return taskRepository.findById(id)
+        return taskRepository.findWithSourceMessageById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found with id: " + id));
     }
 }
\ No newline at end of file
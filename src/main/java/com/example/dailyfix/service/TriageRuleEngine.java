@@ -0,0 +1,155 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.enums.MessageIntent;
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.model.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deterministic fast path in front of Gemini for mail whose triage is obvious
+ * (digests, bulk mail, no-reply senders, paging systems). Rules come from a JSON file;
+ * all patterns of one field are compiled into a single Aho-Corasick automaton.
+ * The first rule in file order wins when several match.
+ */
+@Component
+public class TriageRuleEngine {
+
+    public enum Field { SENDER, DOMAIN, SUBJECT, HEADER }
+
+    public record TriageRule(String name, Field field, List<String> patterns, Priority priority, MessageIntent intent) {
+    }
+
+    public record RuleMatch(String ruleName, Priority priority, MessageIntent intent) {
+    }
+
+    /**
+     * One automaton per field; patternOwner maps each compiled pattern back to its rule.
+     */
+    private record FieldMatcher(AhoCorasickMatcher matcher, int[] patternOwner) {
+    }
+
+    private final boolean enabled;
+    private final List<TriageRule> rules;
+    private final Map<Field, FieldMatcher> matchers = new EnumMap<>(Field.class);
+
+    private final Counter evaluations;
+    private final Counter misses;
+    private final List<Counter> ruleHits = new ArrayList<>();
+
+    public TriageRuleEngine(@Value("${dailyfix.triage.rules.enabled:true}") boolean enabled,
+                            @Value("${dailyfix.triage.rules.location:classpath:triage-rules.json}") Resource rulesFile,
+                            MeterRegistry meterRegistry) throws IOException {
+        this.enabled = enabled;
+        this.rules = enabled ? loadRules(rulesFile) : List.of();
+
+        for (Field field : Field.values()) {
+            List<String> patterns = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for (int r = 0; r < rules.size(); r++) {
+                if (rules.get(r).field() != field) continue;
+                for (String pattern : rules.get(r).patterns()) {
+                    // Domains are anchored on a label boundary: ".github.com" matches mail.github.com only
+                    patterns.add(field == Field.DOMAIN ? "." + pattern : pattern);
+                    owners.add(r);
+                }
+            }
+            if (!patterns.isEmpty()) {
+                matchers.put(field, new FieldMatcher(new AhoCorasickMatcher(patterns),
+                        owners.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+
+        this.evaluations = meterRegistry.counter("triage.rules.evaluations");
+        this.misses = meterRegistry.counter("triage.rules.misses");
+        for (TriageRule rule : rules) {
+            ruleHits.add(meterRegistry.counter("triage.rules.hits", "rule", rule.name()));
+        }
+        System.out.println("Triage rule engine loaded " + rules.size() + " rules");
+    }
+
+    /**
+     * Returns the winning rule for the message, or empty if Gemini has to decide.
+     */
+    public Optional<RuleMatch> evaluate(Message message) {
+        if (!enabled || rules.isEmpty()) {
+            return Optional.empty();
+        }
+        evaluations.increment();
+
+        int best = Integer.MAX_VALUE;
+        best = Math.min(best, scan(Field.SENDER, message.getSenderEmail(), false));
+        best = Math.min(best, scan(Field.DOMAIN, message.getSenderDomain() == null ? null : "." + message.getSenderDomain(), true));
+        best = Math.min(best, scan(Field.SUBJECT, message.getSubject(), false));
+        best = Math.min(best, scan(Field.HEADER, message.getTriageHeaders(), false));
+
+        if (best == Integer.MAX_VALUE) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        TriageRule rule = rules.get(best);
+        ruleHits.get(best).increment();
+        return Optional.of(new RuleMatch(rule.name(), rule.priority(), rule.intent()));
+    }
+
+    private int scan(Field field, String value, boolean anchorAtEnd) {
+        FieldMatcher fieldMatcher = matchers.get(field);
+        if (fieldMatcher == null || value == null) {
+            return Integer.MAX_VALUE;
+        }
+
+        String text = value.toLowerCase(Locale.ROOT);
+        int[] best = {Integer.MAX_VALUE};
+        fieldMatcher.matcher().forEachMatch(text, (patternIndex, end) -> {
+            if (anchorAtEnd && end != text.length()) return;
+            best[0] = Math.min(best[0], fieldMatcher.patternOwner()[patternIndex]);
+        });
+        return best[0];
+    }
+
+    private static List<TriageRule> loadRules(Resource rulesFile) throws IOException {
+        if (!rulesFile.exists()) {
+            System.err.println("Triage rules file not found: " + rulesFile.getDescription());
+            return List.of();
+        }
+
+        String json;
+        try (InputStream in = rulesFile.getInputStream()) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        JSONArray array = new JSONArray(json);
+        List<TriageRule> loaded = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject rule = array.getJSONObject(i);
+            List<String> patterns = new ArrayList<>();
+            JSONArray rawPatterns = rule.getJSONArray("patterns");
+            for (int p = 0; p < rawPatterns.length(); p++) {
+                patterns.add(rawPatterns.getString(p).toLowerCase(Locale.ROOT));
+            }
+            loaded.add(new TriageRule(
+                    rule.getString("name"),
+                    Field.valueOf(rule.getString("field")),
+                    patterns,
+                    Priority.valueOf(rule.getString("priority")),
+                    MessageIntent.valueOf(rule.getString("intent"))));
+        }
+        return List.copyOf(loaded);
+    }
+}
@@ -0,0 +1,20 @@
+-- Columns and tables added by incremental sync, the triage work queue, triage rules and the classification cache.
+-- IF NOT EXISTS because databases that ran those changes under ddl-auto=update may already have some of them.
+
+-- Incremental Gmail sync: per-user history cursor, and users whose refresh token was revoked
+ALTER TABLE users ADD COLUMN IF NOT EXISTS gmail_history_id NUMERIC(38, 0);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_synced_at TIMESTAMP(6);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS reauth_required BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Triage queue: retry bookkeeping, and the headers the rule engine matches on
+ALTER TABLE message ADD COLUMN IF NOT EXISTS triage_headers TEXT;
+ALTER TABLE message ADD COLUMN IF NOT EXISTS triage_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE message ADD COLUMN IF NOT EXISTS next_triage_at TIMESTAMP(6);
+
+-- Cross-user Gemini classification cache
+CREATE TABLE IF NOT EXISTS classification_cache_entry (
+    content_hash  VARCHAR(64) PRIMARY KEY,
+    priority      VARCHAR(255),
+    intent        VARCHAR(255),
+    created_at    TIMESTAMP(6)
+);
@@ -0,0 +1,88 @@
+-- Schema as generated by spring.jpa.hibernate.ddl-auto=update before Flyway took over.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip this script,
+-- so it must stay exactly that schema; later changes go in versioned migrations after it.
+
+CREATE TABLE users (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name               VARCHAR(255),
+    email              VARCHAR(255) NOT NULL UNIQUE,
+    password           VARCHAR(255),
+    role               VARCHAR(255),
+    active             BOOLEAN      NOT NULL,
+    created_at         TIMESTAMP(6)
+);
+
+CREATE TABLE message (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT REFERENCES users (id),
+    sender_email     VARCHAR(255),
+    sender_domain    VARCHAR(255),
+    source_type      VARCHAR(255),
+    subject          VARCHAR(255),
+    content          TEXT,
+    received_at      TIMESTAMP(6),
+    intent           VARCHAR(255),
+    priority         VARCHAR(255),
+    processed        BOOLEAN      NOT NULL,
+    gmail_id         VARCHAR(255) UNIQUE
+);
+
+CREATE TABLE task (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title              VARCHAR(255),
+    description        TEXT,
+    priority           VARCHAR(255),
+    status             VARCHAR(255),
+    assigned_to_id     BIGINT REFERENCES users (id),
+    source_message_id  BIGINT UNIQUE REFERENCES message (id),
+    created_at         TIMESTAMP(6),
+    due_date           TIMESTAMP(6)
+);
+
+CREATE TABLE activity_log (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id          BIGINT REFERENCES task (id),
+    performed_by_id  BIGINT REFERENCES users (id),
+    action           VARCHAR(255),
+    performed_at     TIMESTAMP(6),
+    remarks          VARCHAR(255)
+);
+
+CREATE TABLE message_interaction (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         BIGINT REFERENCES users (id),
+    message_id      BIGINT REFERENCES message (id),
+    action          VARCHAR(255),
+    interacted_at   TIMESTAMP(6),
+    feedback_notes  TEXT
+);
+
+CREATE TABLE alert_whitelist (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sender_domain  VARCHAR(255) UNIQUE,
+    alert_enabled  BOOLEAN NOT NULL,
+    added_at       TIMESTAMP(6)
+);
+
+CREATE TABLE sender_profile (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sender_domain  VARCHAR(255) UNIQUE,
+    trust_level    VARCHAR(255),
+    promotional    BOOLEAN NOT NULL,
+    created_at     TIMESTAMP(6)
+);
+
+-- Spring Security's JdbcOAuth2AuthorizedClientService table; used to be created by hand
+CREATE TABLE IF NOT EXISTS oauth2_authorized_client (
+    client_registration_id   VARCHAR(100)                            NOT NULL,
+    principal_name           VARCHAR(200)                            NOT NULL,
+    access_token_type        VARCHAR(100)                            NOT NULL,
+    access_token_value       BYTEA                                   NOT NULL,
+    access_token_issued_at   TIMESTAMP                               NOT NULL,
+    access_token_expires_at  TIMESTAMP                               NOT NULL,
+    access_token_scopes      VARCHAR(1000) DEFAULT NULL,
+    refresh_token_value      BYTEA         DEFAULT NULL,
+    refresh_token_issued_at  TIMESTAMP     DEFAULT NULL,
+    created_at               TIMESTAMP     DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (client_registration_id, principal_name)
+);
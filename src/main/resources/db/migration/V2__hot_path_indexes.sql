@@ -0,0 +1,30 @@
+-- Indexes behind the per-user read paths. IF NOT EXISTS because databases that ran
+-- under ddl-auto=update already created the ones that used to be declared on the entities.
+
+-- Dashboard counts and recent slice: one user's messages in a received_at window
+CREATE INDEX IF NOT EXISTS idx_message_user_received ON message (user_id, received_at, priority);
+
+-- Keyset listing of one priority bucket (/api/messages/priority/{priority})
+CREATE INDEX IF NOT EXISTS idx_message_user_priority_received ON message (user_id, priority, received_at, id);
+
+-- Interaction lookups by sender domain join through message
+CREATE INDEX IF NOT EXISTS idx_message_sender_domain ON message (sender_domain);
+
+-- Triage queue claim: only unprocessed rows, scanned in id order
+CREATE INDEX IF NOT EXISTS idx_message_triage_queue ON message (id) WHERE processed = FALSE;
+
+-- Open tasks per user for the dashboard, and status filters
+CREATE INDEX IF NOT EXISTS idx_task_assignee_status_created ON task (assigned_to_id, status, created_at);
+CREATE INDEX IF NOT EXISTS idx_task_status ON task (status);
+
+-- Keyset listing of a user's tasks, and of all tasks
+CREATE INDEX IF NOT EXISTS idx_task_assignee_created ON task (assigned_to_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_task_created ON task (created_at, id);
+
+-- Foreign keys that are filtered or joined on
+CREATE INDEX IF NOT EXISTS idx_message_interaction_message ON message_interaction (message_id);
+CREATE INDEX IF NOT EXISTS idx_message_interaction_user ON message_interaction (user_id);
+CREATE INDEX IF NOT EXISTS idx_activity_log_task ON activity_log (task_id);
+
+-- ClassificationCache.purgeExpired deletes by age
+CREATE INDEX IF NOT EXISTS idx_classification_cache_created ON classification_cache_entry (created_at);
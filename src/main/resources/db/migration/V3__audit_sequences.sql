@@ -0,0 +1,12 @@
+-- ActivityLog and MessageInteraction move from IDENTITY to pooled sequences (allocationSize 50)
+-- so AuditWriter's flushes become JDBC batch inserts.
+
+ALTER TABLE activity_log ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE message_interaction ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS activity_log_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS message_interaction_seq INCREMENT BY 50;
+
+-- Start past existing rows with a full block of headroom, whatever range the pooled optimizer derives
+SELECT setval('activity_log_seq', COALESCE((SELECT MAX(id) FROM activity_log), 0) + 51, false);
+SELECT setval('message_interaction_seq', COALESCE((SELECT MAX(id) FROM message_interaction), 0) + 51, false);
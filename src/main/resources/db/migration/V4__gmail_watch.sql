@@ -0,0 +1,2 @@
+-- Gmail push notifications: when the user's watch is live, polling them is only a safety net
+ALTER TABLE users ADD COLUMN gmail_watch_expires_at TIMESTAMP(6);
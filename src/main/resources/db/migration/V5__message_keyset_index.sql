@@ -0,0 +1,4 @@
+-- Keyset listing of one user's messages (/api/messages/my-messages), newest first by (received_at, id).
+-- idx_message_user_received has priority rather than id after received_at, so without this
+-- index every page sorts the user's whole mailbox to find the next rows after the cursor.
+CREATE INDEX IF NOT EXISTS idx_message_user_received_id ON message (user_id, received_at DESC, id DESC);
@@ -0,0 +1,220 @@
+package com.example.dailyfix;
+
+import com.example.dailyfix.enums.Priority;
+import com.example.dailyfix.enums.Role;
+import com.example.dailyfix.enums.SourceType;
+import com.example.dailyfix.enums.TaskStatus;
+import com.example.dailyfix.model.Message;
+import com.example.dailyfix.model.Task;
+import com.example.dailyfix.model.User;
+import com.example.dailyfix.repository.MessageRepository;
+import com.example.dailyfix.repository.TaskRepository;
+import com.example.dailyfix.repository.UserRepository;
+import com.example.dailyfix.service.AIService;
+import com.example.dailyfix.service.TaskService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards against N+1 regressions: every read path must cost a fixed number of statements
+ * regardless of how many rows it returns.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.example.dailyfix.QueryCountTests$CountingStatementInspector")
+@AutoConfigureMockMvc
+@Transactional
+class QueryCountTests {
+
+	private static final String EMAIL = "query-count@dailyfix.test";
+	private static final int ROWS = 25;
+
+	/**
+	 * Counts statements per thread, so scheduled jobs running in the same context don't skew the numbers.
+	 */
+	public static class CountingStatementInspector implements StatementInspector {
+
+		static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+		@Override
+		public String inspect(String sql) {
+			COUNT.set(COUNT.get() + 1);
+			return sql;
+		}
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MessageRepository messageRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TaskService taskService;
+
+	// The dashboard summaries would otherwise call Gemini
+	@MockitoBean
+	private AIService aiService;
+
+	private MockHttpSession session;
+	private final List<Long> messageIds = new ArrayList<>();
+	private final List<Long> taskIds = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		User user = new User();
+		user.setEmail(EMAIL);
+		user.setName("Query Count");
+		user.setRole(Role.USER);
+		user.setActive(true);
+		user.setPassword("test");
+		user.setCreatedAt(LocalDateTime.now());
+		userRepository.save(user);
+
+		for (int i = 0; i < ROWS; i++) {
+			Message message = new Message();
+			message.setUser(user);
+			message.setGmailId("query-count-" + i);
+			message.setSenderEmail("sender" + i + "@example.com");
+			message.setSenderDomain("example.com");
+			message.setSourceType(SourceType.EMAIL);
+			message.setSubject("Subject " + i);
+			message.setContent("Body " + i);
+			message.setReceivedAt(LocalDateTime.now().minusMinutes(i));
+			message.setPriority(Priority.HIGH);
+			message.setProcessed(true);
+			messageRepository.save(message);
+			messageIds.add(message.getId());
+
+			Task task = new Task();
+			task.setTitle("Task " + i);
+			task.setDescription("Body " + i);
+			task.setPriority(Priority.HIGH);
+			task.setStatus(TaskStatus.OPEN);
+			task.setAssignedTo(user);
+			task.setSourceMessage(message);
+			task.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+			taskRepository.save(task);
+			taskIds.add(task.getId());
+		}
+
+		// Nothing may be answered from the persistence context
+		entityManager.flush();
+		entityManager.clear();
+
+		UsernamePasswordAuthenticationToken authentication =
+				new UsernamePasswordAuthenticationToken(EMAIL, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+		session = new MockHttpSession();
+		session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+				new SecurityContextImpl(authentication));
+
+		when(aiService.summarizeEmails(anyString())).thenReturn("Mail summary");
+		when(aiService.summarizeTasks(anyString())).thenReturn("Task summary");
+
+		CountingStatementInspector.COUNT.set(0);
+	}
+
+	@Test
+	void myMessagesIsOneQuery() throws Exception {
+		mockMvc.perform(get("/api/messages/my-messages").session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void messagesByPriorityIsOneQuery() throws Exception {
+		mockMvc.perform(get("/api/messages/priority/HIGH").session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void myTasksIsOneQuery() throws Exception {
+		mockMvc.perform(get("/api/tasks/my-tasks").session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void allTasksIsOneQuery() throws Exception {
+		mockMvc.perform(get("/api/tasks").session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void taskDetailIsOneQuery() throws Exception {
+		mockMvc.perform(get("/api/tasks/" + taskIds.getFirst()).session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void messageDetailIsOneQuery() throws Exception {
+		mockMvc.perform(get("/api/messages/" + messageIds.getFirst()).session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void dashboardStatsIsThreeQueries() throws Exception {
+		// Aggregate counts, then the message and open-task slices the summaries are fingerprinted from
+		mockMvc.perform(get("/api/dashboard/stats").session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(3);
+
+		// A repeat visit is answered from the summary cache, at the same cost
+		CountingStatementInspector.COUNT.set(0);
+		mockMvc.perform(get("/api/dashboard/stats").session(session)).andExpect(status().isOk());
+		assertThat(statements()).isEqualTo(3);
+	}
+
+	@Test
+	void triageLoadFetchesOwnersInTheSameQuery() {
+		List<Message> messages = messageRepository.findWithUserByIdIn(messageIds);
+		messages.forEach(m -> assertThat(m.getUser().getEmail()).isEqualTo(EMAIL));
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void dashboardTaskSliceDoesNotLoadAssociations() {
+		List<Task> tasks = taskService.getOpenTasks(EMAIL, ROWS);
+		assertThat(tasks).hasSize(ROWS);
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	@Test
+	void replyLookupFetchesSourceMessage() {
+		Task task = taskService.getTaskById(taskIds.getFirst());
+		assertThat(task.getSourceMessage().getSenderEmail()).isNotNull();
+		assertThat(statements()).isEqualTo(1);
+	}
+
+	private int statements() {
+		return CountingStatementInspector.COUNT.get();
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.dailyfix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickMatcherTests {
+
+	@Test
+	void reportsOverlappingAndSuffixMatches() {
+		List<String> patterns = List.of("he", "she", "his", "hers");
+
+		// "she" and its suffix "he" both end at 4; "hers" starts inside "she"
+		assertThat(matches(patterns, "ushers")).containsExactlyInAnyOrder("she@4", "he@4", "hers@6");
+	}
+
+	@Test
+	void followsFailureLinksIntoShorterPatterns() {
+		List<String> patterns = List.of("abcd", "bc", "c");
+
+		// The walk is deep in "abc" when "abcd" fails, so "bc" and "c" only surface via failure links
+		assertThat(matches(patterns, "abcx")).containsExactlyInAnyOrder("bc@3", "c@3");
+	}
+
+	@Test
+	void reportsEveryOccurrenceOfRepeatedPatterns() {
+		assertThat(matches(List.of("aa"), "aaaa")).containsExactly("aa@2", "aa@3", "aa@4");
+		assertThat(matches(List.of("ab", "ab"), "xab")).containsExactly("ab@3", "ab@3");
+		assertThat(matches(List.of("ab"), "")).isEmpty();
+	}
+
+	@Test
+	void matchesCaseInsensitivelyOnceBothSidesAreLowerCased() {
+		// TriageRuleEngine lower-cases patterns and field values with Locale.ROOT; the automaton itself is exact
+		List<String> patterns = List.of("unsubscribe", "über");
+		String subject = "Click to UNSUBSCRIBE from ÜBER Weekly";
+
+		assertThat(matches(patterns, subject)).isEmpty();
+		assertThat(matches(patterns, subject.toLowerCase(Locale.ROOT))).containsExactly("unsubscribe@20", "über@30");
+	}
+
+	private static List<String> matches(List<String> patterns, String text) {
+		List<String> found = new ArrayList<>();
+		new AhoCorasickMatcher(patterns).forEachMatch(text, (patternIndex, end) -> found.add(patterns.get(patternIndex) + "@" + end));
+		return found;
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.dailyfix.service;
+
+import com.example.dailyfix.enums.TrustLevel;
+import com.example.dailyfix.model.AlertWhitelist;
+import com.example.dailyfix.model.SenderProfile;
+import com.example.dailyfix.repository.AlertWhitelistRepository;
+import com.example.dailyfix.repository.SenderProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DomainPolicyIndexTests {
+
+	private DomainPolicyIndex index;
+
+	@BeforeEach
+	void setUp() {
+		AlertWhitelistRepository whitelist = mock(AlertWhitelistRepository.class);
+		SenderProfileRepository profiles = mock(SenderProfileRepository.class);
+		when(whitelist.findAll()).thenReturn(List.of(
+				alert("github.com", true),
+				alert("noreply.github.com", false),
+				alert("pagerduty.com.", true)));
+		when(profiles.findAll()).thenReturn(List.of(
+				profile("acme-corp.com", TrustLevel.HIGH),
+				profile("marketing.acme-corp.com", TrustLevel.LOW)));
+
+		index = new DomainPolicyIndex(whitelist, profiles);
+		index.reload();
+	}
+
+	@Test
+	void exactMatch() {
+		assertThat(index.isAlertEnabled("github.com")).isTrue();
+		assertThat(index.trustLevelOf("acme-corp.com")).contains(TrustLevel.HIGH);
+	}
+
+	@Test
+	void subdomainsInheritFromTheirParent() {
+		assertThat(index.isAlertEnabled("mail.github.com")).isTrue();
+		assertThat(index.isAlertEnabled("a.b.github.com")).isTrue();
+		assertThat(index.trustLevelOf("eu.acme-corp.com")).contains(TrustLevel.HIGH);
+	}
+
+	@Test
+	void mostSpecificEntryWins() {
+		assertThat(index.isAlertEnabled("noreply.github.com")).isFalse();
+		assertThat(index.isAlertEnabled("bounce.noreply.github.com")).isFalse();
+		assertThat(index.trustLevelOf("news.marketing.acme-corp.com")).contains(TrustLevel.LOW);
+	}
+
+	@Test
+	void trailingDotsAndCaseAreIgnored() {
+		assertThat(index.isAlertEnabled("mail.github.com.")).isTrue();
+		assertThat(index.isAlertEnabled(" GitHub.COM ")).isTrue();
+		// Stored with a trailing dot, looked up without one, and the other way round
+		assertThat(index.isAlertEnabled("pagerduty.com")).isTrue();
+		assertThat(index.trustLevelOf("acme-corp.com.")).contains(TrustLevel.HIGH);
+	}
+
+	@Test
+	void onlyWholeLabelsMatch() {
+		assertThat(index.isAlertEnabled("notgithub.com")).isFalse();
+		assertThat(index.isAlertEnabled("github.com.evil.io")).isFalse();
+		assertThat(index.isAlertEnabled("com")).isFalse();
+		assertThat(index.trustLevelOf("example.org")).isEmpty();
+		assertThat(index.trustLevelOf(null)).isEmpty();
+		assertThat(index.isAlertEnabled("")).isFalse();
+	}
+
+	private static AlertWhitelist alert(String domain, boolean enabled) {
+		AlertWhitelist entry = new AlertWhitelist();
+		entry.setSenderDomain(domain);
+		entry.setAlertEnabled(enabled);
+		return entry;
+	}
+
+	private static SenderProfile profile(String domain, TrustLevel trust) {
+		SenderProfile profile = new SenderProfile();
+		profile.setSenderDomain(domain);
+		profile.setTrustLevel(trust);
+		return profile;
+	}
+}
@@ -0,0 +1,169 @@
+package com.example.dailyfix.service;
+
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartBody;
+import com.google.api.services.gmail.model.MessagePartHeader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MimeBodyExtractorTests {
+
+	@Test
+	void prefersPlainTextOverHtml() {
+		MessagePart payload = multipart("multipart/alternative",
+				text("text/html", "<p>From the <b>HTML</b> part</p>"),
+				text("text/plain", "From the plain part"));
+
+		assertThat(MimeBodyExtractor.extract(payload)).isEqualTo("From the plain part");
+	}
+
+	@Test
+	void findsPlainTextNestedInMultipartMixed() {
+		MessagePart payload = multipart("multipart/mixed",
+				multipart("multipart/related",
+						multipart("multipart/alternative", text("text/plain", "Nested body"))),
+				text("text/plain", "Later part"));
+
+		assertThat(MimeBodyExtractor.extract(payload)).isEqualTo("Nested body");
+	}
+
+	@Test
+	void collapsesWhitespace() {
+		MessagePart payload = text("text/plain", "  Line one\r\n\r\n\tLine two  ");
+
+		assertThat(MimeBodyExtractor.extract(payload)).isEqualTo("Line one Line two");
+	}
+
+	@Test
+	void stripsTagsAndDropsScriptStyleAndHead() {
+		String html = "<html><head><title>Ignored</title><style>p { color: red }</style></head>"
+				+ "<body><p>Deploy <b>tonight</b></p><script>var x = 1;</script><div>at 5pm</div></body></html>";
+
+		assertThat(MimeBodyExtractor.extract(text("text/html", html))).isEqualTo("Deploy tonight at 5pm");
+	}
+
+	@Test
+	void strayAngleBracketInScriptDoesNotSwallowTheRest() {
+		String html = "<script>if (a < b) { go(); }</script><p>Visible</p>";
+
+		assertThat(MimeBodyExtractor.extract(text("text/html", html))).isEqualTo("Visible");
+	}
+
+	@Test
+	void selfClosingScriptDoesNotSwallowTheRest() {
+		String html = "<script src=\"https://example.com/a.js\" /><p>Visible</p>";
+
+		assertThat(MimeBodyExtractor.extract(text("text/html", html))).isEqualTo("Visible");
+	}
+
+	@Test
+	void skipsAttachmentsWithoutDecodingThem() {
+		MessagePart byFilename = text("text/plain", "notes.txt attachment").setFilename("notes.txt");
+		MessagePart byAttachmentId = new MessagePart().setMimeType("text/plain")
+				.setBody(new MessagePartBody().setAttachmentId("ANGjdJ8").setData(encode("fetched attachment")));
+		MessagePart byDisposition = text("text/plain", "disposition attachment")
+				.setHeaders(List.of(header("Content-Disposition", "attachment; filename=\"log.txt\"")));
+		MessagePart image = new MessagePart().setMimeType("image/png").setFilename("banner.png")
+				.setBody(new MessagePartBody().setData("%%% not base64 %%%"));
+
+		MessagePart payload = multipart("multipart/mixed",
+				byFilename, byAttachmentId, byDisposition, image, text("text/plain", "The body"));
+
+		assertThat(MimeBodyExtractor.extract(payload)).isEqualTo("The body");
+	}
+
+	@Test
+	void keepsAtMostMaxChars() {
+		String body = "word ".repeat(MimeBodyExtractor.MAX_CHARS);
+
+		String text = MimeBodyExtractor.extract(text("text/plain", body));
+
+		assertThat(text).startsWith("word word").doesNotEndWith(" ")
+				.hasSizeLessThanOrEqualTo(MimeBodyExtractor.MAX_CHARS)
+				.hasSizeGreaterThan(MimeBodyExtractor.MAX_CHARS - "word ".length());
+	}
+
+	@Test
+	void stopsDecodingAtTheByteBudget() {
+		// Visible text only starts after the budget, so none of it may be reached
+		String html = "<style>" + "x".repeat(MimeBodyExtractor.MAX_DECODED_BYTES) + "</style>Too late";
+
+		assertThat(MimeBodyExtractor.extract(text("text/html", html))).isNull();
+	}
+
+	@Test
+	void multiByteCharactersSplitAcrossChunksSurvive() {
+		// Two-byte and three-byte characters at odd offsets, so decoded chunk edges fall inside them
+		String body = "a" + "é€".repeat(999);
+
+		String text = MimeBodyExtractor.extract(text("text/plain", body));
+
+		assertThat(text).isEqualTo(body).doesNotContain("\uFFFD");
+	}
+
+	@Test
+	void decodesPaddedAndUnpaddedBase64() {
+		String body = "ab";
+		MessagePart padded = new MessagePart().setMimeType("text/plain")
+				.setBody(new MessagePartBody().setData(Base64.getUrlEncoder().encodeToString(body.getBytes(StandardCharsets.UTF_8))));
+		MessagePart unpadded = text("text/plain", body);
+
+		assertThat(padded.getBody().getData()).endsWith("=");
+		assertThat(MimeBodyExtractor.extract(padded)).isEqualTo(body);
+		assertThat(MimeBodyExtractor.extract(unpadded)).isEqualTo(body);
+	}
+
+	@Test
+	void usesTheDeclaredCharset() {
+		MessagePart part = text("text/plain", "Café crème", StandardCharsets.ISO_8859_1)
+				.setHeaders(List.of(header("Content-Type", "text/plain; charset=\"ISO-8859-1\"")));
+
+		assertThat(MimeBodyExtractor.extract(part)).isEqualTo("Café crème");
+	}
+
+	@Test
+	void corruptDataKeepsWhatWasDecodedBeforeIt() {
+		String good = encode("x".repeat(3072));
+		MessagePart part = new MessagePart().setMimeType("text/plain")
+				.setBody(new MessagePartBody().setData(good + "!!!!"));
+
+		assertThat(MimeBodyExtractor.extract(part)).isEqualTo("x".repeat(MimeBodyExtractor.MAX_CHARS));
+		assertThat(MimeBodyExtractor.extract(new MessagePart().setMimeType("text/plain")
+				.setBody(new MessagePartBody().setData("!!!!")))).isNull();
+	}
+
+	@Test
+	void returnsNullWithoutAnInlineTextPart() {
+		assertThat(MimeBodyExtractor.extract(null)).isNull();
+		assertThat(MimeBodyExtractor.extract(new MessagePart().setMimeType("text/plain"))).isNull();
+		assertThat(MimeBodyExtractor.extract(multipart("multipart/mixed",
+				text("application/pdf", "%PDF-1.7")))).isNull();
+	}
+
+	private static MessagePart multipart(String mimeType, MessagePart... parts) {
+		return new MessagePart().setMimeType(mimeType).setParts(List.of(parts));
+	}
+
+	private static MessagePart text(String mimeType, String content) {
+		return text(mimeType, content, StandardCharsets.UTF_8);
+	}
+
+	private static MessagePart text(String mimeType, String content, Charset charset) {
+		String data = Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(charset));
+		return new MessagePart().setMimeType(mimeType).setBody(new MessagePartBody().setData(data));
+	}
+
+	private static String encode(String content) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static MessagePartHeader header(String name, String value) {
+		return new MessagePartHeader().setName(name).setValue(value);
+	}
+}